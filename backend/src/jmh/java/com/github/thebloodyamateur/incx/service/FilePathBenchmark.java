@@ -0,0 +1,47 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Object key construction and the renaming of long file names in {@link FileService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilePathBenchmark {
+
+    @Param({"", "documents", "documents/2025/invoices/q4"})
+    public String parentDirectory;
+
+    @Param({"notes.txt", "quarterly-report-final-v3-reviewed.pdf"})
+    public String fileName;
+
+    @Benchmark
+    public String objectPath() {
+        return FileService.objectPath(parentDirectory, fileName);
+    }
+
+    @Benchmark
+    public String uploadPath() {
+        return FileService.objectPath(parentDirectory, FileService.storedFileName(fileName));
+    }
+
+    @Benchmark
+    public String directoryPath() {
+        return FileService.objectPath(parentDirectory, "archive") + "/";
+    }
+}
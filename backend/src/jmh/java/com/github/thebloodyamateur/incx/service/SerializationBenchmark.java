@@ -0,0 +1,78 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.thebloodyamateur.incx.dto.ContentResponse;
+import com.github.thebloodyamateur.incx.dto.WeatherQuery;
+import com.github.thebloodyamateur.incx.dto.WeatherResponse;
+
+/**
+ * Response serialization at list sizes seen in practice: folder listings from a handful to a few
+ * thousand entries, and weather responses that embed the raw forecast.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int listSize;
+
+    // Same defaults as the ObjectMapper Spring MVC uses.
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<ContentResponse> listing;
+    private List<WeatherResponse> weatherResponses;
+
+    @Setup
+    public void setUp() throws Exception {
+        listing = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            boolean folder = i % 7 == 0;
+            listing.add(new ContentResponse(
+                folder ? "folder-" + i : "document-" + i + (i % 3 == 0 ? ".pdf" : ".png"),
+                folder ? "FOLDER" : "FILE",
+                folder ? 0L : 1024L * (i % 4096 + 1)));
+        }
+
+        Instant now = Instant.now();
+        WeatherCache.CachedForecast cached = new WeatherCache.CachedForecast(
+            objectMapper.readTree(Fixtures.load("forecast-berlin.json")), now, now.plusSeconds(600));
+        WeatherQuery query = new WeatherQuery(52.52, 13.41, "normal", null, null, null, null, null, null);
+        // Weather responses carry a week of hourly data each, so the list stays short.
+        int weatherCount = Math.max(1, listSize / 100);
+        weatherResponses = new ArrayList<>(weatherCount);
+        for (int i = 0; i < weatherCount; i++) {
+            weatherResponses.add(WeatherService.buildResponse(query, cached));
+        }
+    }
+
+    @Benchmark
+    public byte[] contentListing() throws Exception {
+        return objectMapper.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public byte[] weatherResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(weatherResponses);
+    }
+}
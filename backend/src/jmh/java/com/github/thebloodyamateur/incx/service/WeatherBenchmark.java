@@ -0,0 +1,89 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.thebloodyamateur.incx.dto.WeatherQuery;
+import com.github.thebloodyamateur.incx.dto.WeatherResponse;
+
+/**
+ * Parsing an Open-Meteo forecast and turning it into a {@link WeatherResponse}, i.e. the CPU work
+ * behind every cache miss and every cached request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherBenchmark {
+
+    @Param({"forecast-berlin.json", "forecast-bergen-rain.json", "forecast-tromso-snow.json"})
+    public String fixture;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] body;
+    private WeatherCache.CachedForecast cached;
+    private WeatherQuery query;
+    private WeatherQuery godModeQuery;
+
+    // A spread of WMO codes and readings covering every branch of deriveWeatherMode.
+    private static final int[] CODES = {0, 1, 2, 3, 45, 51, 61, 63, 71, 73, 80, 95, 99, 3, 2, 0};
+    private static final double[] PRECIPITATION = {0.0, 0.0, 0.1, 0.0, 0.0, 0.4, 1.2, 2.5, 0.8, 1.1, 0.6, 3.0, 4.2, 0.3, 0.0, 0.0};
+    private static final double[] TEMPERATURE = {12.5, 8.1, -1.5, 3.0, 4.2, 6.6, -0.4, 9.9, -3.2, -5.0, 11.0, 18.4, 21.0, 1.0, 15.2, 22.0};
+    private static final double[] WIND = {5.0, 12.0, 40.0, 8.5, 3.0, 18.0, 22.0, 75.0, 10.0, 14.0, 30.0, 55.0, 80.0, 36.0, 4.0, 2.0};
+    private static final double[] CLOUD = {0, 20, 85, 100, 100, 90, 100, 100, 95, 100, 70, 100, 100, 82, 35, 0};
+    private int cursor;
+
+    @Setup
+    public void setUp() throws Exception {
+        body = Fixtures.load(fixture);
+        JsonNode forecast = objectMapper.readTree(body);
+        Instant now = Instant.now();
+        cached = new WeatherCache.CachedForecast(forecast, now, now.plusSeconds(600));
+        query = new WeatherQuery(52.52, 13.41, "normal", null, null, null, null, null, null);
+        godModeQuery = new WeatherQuery(52.52, 13.41, "god", -4.0, 20.0, 90.0, 100.0, 1.5, "snow");
+    }
+
+    @Benchmark
+    public JsonNode parseForecast() throws Exception {
+        return objectMapper.readTree(body);
+    }
+
+    @Benchmark
+    public WeatherResponse buildResponse() {
+        return WeatherService.buildResponse(query, cached);
+    }
+
+    @Benchmark
+    public WeatherResponse buildResponseGodMode() {
+        return WeatherService.buildResponse(godModeQuery, cached);
+    }
+
+    @Benchmark
+    public WeatherResponse parseAndBuild() throws Exception {
+        JsonNode forecast = objectMapper.readTree(body);
+        return WeatherService.buildResponse(query, new WeatherCache.CachedForecast(forecast, cached.fetchedAt(), cached.expiresAt()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String deriveWeatherMode() {
+        int i = cursor++ & (CODES.length - 1);
+        return WeatherService.deriveWeatherMode(CODES[i], PRECIPITATION[i], TEMPERATURE[i], WIND[i], CLOUD[i]);
+    }
+}
@@ -0,0 +1,388 @@
+package com.github.thebloodyamateur.incx.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives a weighted mix of API calls from one virtual thread per simulated user and records a
+ * latency histogram and status-class counters per endpoint. Every user registers its own account
+ * (and therefore its own bucket) before the measured phase, so uploads and listings never contend
+ * on a single bucket.
+ */
+final class LoadGenerator {
+    enum Endpoint {
+        LOGIN(5), UPLOAD(10), LIST(35), DOWNLOAD(15), WEATHER(25), BOOKING(10);
+
+        final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    record Settings(int users, Duration warmup, Duration duration, int maxUploadBytes, Duration thinkTime) {}
+
+    record EndpointReport(String endpoint, long requests, double throughputPerSecond,
+                          long ok, long clientErrors, long serverErrors, long failures,
+                          double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {}
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int TOTAL_WEIGHT = Arrays.stream(Endpoint.values()).mapToInt(e -> e.weight).sum();
+    private static final String[] CITIES = {"52.52,13.41", "60.39,5.32", "69.65,18.96", "48.14,11.58", "53.55,9.99"};
+
+    private final String baseUrl;
+    private final Settings settings;
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000, 36);
+    private final HttpClient client = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final Map<Endpoint, Stats> stats = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    LoadGenerator(String baseUrl, Settings settings) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    List<EndpointReport> run() throws InterruptedException {
+        List<VirtualUser> users = new CopyOnWriteArrayList<>();
+        try (ExecutorService setup = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.users(); i++) {
+                int n = i;
+                setup.submit(() -> {
+                    users.add(VirtualUser.register(this, "lt-" + runId + "-" + n));
+                    return null;
+                });
+            }
+        }
+        if (users.isEmpty()) {
+            throw new IllegalStateException("No virtual user could register; is the application healthy?");
+        }
+        System.out.printf("%d virtual users registered, warming up for %s%n", users.size(), settings.warmup());
+
+        long start = System.nanoTime();
+        long warmupEnd = start + settings.warmup().toNanos();
+        long end = warmupEnd + settings.duration().toNanos();
+        try (ExecutorService load = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (VirtualUser user : users) {
+                load.submit(() -> user.loop(end));
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+            stats.values().forEach(Stats::reset);
+            recording = true;
+            System.out.printf("Measuring for %s%n", settings.duration());
+        }
+        recording = false;
+
+        double seconds = settings.duration().toMillis() / 1000.0;
+        List<EndpointReport> reports = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            reports.add(stats.get(endpoint).report(endpoint.name().toLowerCase(), seconds));
+        }
+        return reports;
+    }
+
+    static Endpoint pick() {
+        int roll = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.LIST;
+    }
+
+    /** Sends the request and records it under {@code endpoint}; returns null on transport errors. */
+    HttpResponse<byte[]> call(Endpoint endpoint, HttpRequest request) {
+        long begin = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (recording) {
+                stats.get(endpoint).record(System.nanoTime() - begin, response.statusCode());
+            }
+            return response;
+        } catch (IOException e) {
+            if (recording) {
+                stats.get(endpoint).failures.increment();
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private static final class VirtualUser {
+        private final LoadGenerator generator;
+        private final String username;
+        private final String password = UUID.randomUUID().toString();
+        private final String sessionId = UUID.randomUUID().toString();
+        private final List<String> uploaded = new ArrayList<>();
+        private String accessToken;
+
+        private VirtualUser(LoadGenerator generator, String username) {
+            this.generator = generator;
+            this.username = username;
+        }
+
+        static VirtualUser register(LoadGenerator generator, String username) throws Exception {
+            VirtualUser user = new VirtualUser(generator, username);
+            String body = credentials(username, user.password);
+            HttpResponse<byte[]> response = generator.client.send(
+                generator.request("/auth/register").header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Registration of " + username + " failed: " + response.statusCode());
+            }
+            user.login();
+            // Buckets are provisioned asynchronously; the first upload answers 503 until then.
+            for (int attempt = 0; attempt < 100 && !user.upload(false); attempt++) {
+                Thread.sleep(200);
+            }
+            return user;
+        }
+
+        void loop(long endNanos) {
+            while (System.nanoTime() < endNanos && !Thread.currentThread().isInterrupted()) {
+                switch (pick()) {
+                    case LOGIN -> login();
+                    case UPLOAD -> upload(true);
+                    case LIST -> list();
+                    case DOWNLOAD -> download();
+                    case WEATHER -> weather();
+                    case BOOKING -> booking();
+                }
+                long think = generator.settings.thinkTime().toMillis();
+                if (think > 0) {
+                    try {
+                        Thread.sleep(ThreadLocalRandom.current().nextLong(think + 1));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void login() {
+            HttpResponse<byte[]> response = generator.call(Endpoint.LOGIN,
+                generator.request("/auth/login").header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(credentials(username, password))).build());
+            if (response != null && response.statusCode() == 200) {
+                try {
+                    JsonNode node = JSON.readTree(response.body());
+                    accessToken = node.path("accessToken").asText(null);
+                } catch (IOException e) {
+                    // Keep the previous token.
+                }
+            }
+        }
+
+        private boolean upload(boolean measured) {
+            // Names are kept to 15 characters so the stored name is not mangled by FileService.
+            String fileName = "f" + Long.toString(ThreadLocalRandom.current().nextLong(1L << 40), 36) + ".bin";
+            byte[] payload = new byte[1 + ThreadLocalRandom.current().nextInt(generator.settings.maxUploadBytes())];
+            ThreadLocalRandom.current().nextBytes(payload);
+            Multipart multipart = new Multipart()
+                .field("fileName", fileName)
+                .field("bucketName", username)
+                .file("fileData", fileName, payload);
+            HttpRequest request = authorized(generator.request("/files/upload"))
+                .header("Content-Type", multipart.contentType())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipart.build()))
+                .build();
+            HttpResponse<byte[]> response = measured
+                ? generator.call(Endpoint.UPLOAD, request)
+                : sendQuietly(request);
+            boolean ok = response != null && response.statusCode() / 100 == 2;
+            if (ok) {
+                uploaded.add(fileName);
+            }
+            return ok;
+        }
+
+        private void list() {
+            generator.call(Endpoint.LIST, authorized(generator.request("/files/content?bucketName=" + encode(username))).GET().build());
+        }
+
+        private void download() {
+            if (uploaded.isEmpty()) {
+                list();
+                return;
+            }
+            String fileName = uploaded.get(ThreadLocalRandom.current().nextInt(uploaded.size()));
+            generator.call(Endpoint.DOWNLOAD, authorized(generator.request(
+                "/files/download?fileName=" + encode(fileName) + "&bucketName=" + encode(username))).GET().build());
+        }
+
+        private void weather() {
+            String[] coordinates = CITIES[ThreadLocalRandom.current().nextInt(CITIES.length)].split(",");
+            generator.call(Endpoint.WEATHER, generator.request(
+                "/weather/current?lat=" + coordinates[0] + "&lon=" + coordinates[1]).GET().build());
+        }
+
+        private void booking() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextInt(4) > 0) {
+                YearMonth month = YearMonth.now().plusMonths(random.nextInt(12));
+                generator.call(Endpoint.BOOKING, generator.request("/bookings/availability?month=" + month).GET().build());
+                return;
+            }
+            // Dates are globally unique, so most attempts late in a run end in a 409; that is
+            // part of the workload rather than an error in the harness.
+            LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(3650));
+            String body = "{\"sessionId\":\"" + sessionId + "\",\"firstName\":\"Load\",\"lastName\":\"Test\","
+                + "\"email\":\"" + username + "@example.org\",\"bookingDate\":\"" + date + "\"}";
+            generator.call(Endpoint.BOOKING, generator.request("/bookings").header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        }
+
+        private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+            return accessToken == null ? builder : builder.header("Authorization", "Bearer " + accessToken);
+        }
+
+        private HttpResponse<byte[]> sendQuietly(HttpRequest request) {
+            try {
+                return generator.client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        private static String credentials(String username, String password) {
+            return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Multipart {
+        private final String boundary = "----incx" + UUID.randomUUID().toString().replace("-", "");
+        private final List<byte[]> parts = new ArrayList<>();
+
+        Multipart field(String name, String value) {
+            parts.add(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        Multipart file(String name, String fileName, byte[] content) {
+            parts.add(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                + fileName + "\"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            parts.add(content);
+            parts.add("\r\n".getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        String contentType() {
+            return "multipart/form-data; boundary=" + boundary;
+        }
+
+        byte[] build() {
+            parts.add(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            int length = parts.stream().mapToInt(p -> p.length).sum();
+            byte[] body = new byte[length];
+            int offset = 0;
+            for (byte[] part : parts) {
+                System.arraycopy(part, 0, body, offset, part.length);
+                offset += part.length;
+            }
+            return body;
+        }
+    }
+
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        void record(long nanos, int status) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latency.getHighestTrackableValue()));
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            } else {
+                ok.increment();
+            }
+        }
+
+        void reset() {
+            latency.reset();
+            ok.reset();
+            clientErrors.reset();
+            serverErrors.reset();
+            failures.reset();
+        }
+
+        EndpointReport report(String name, double seconds) {
+            long requests = latency.getTotalCount();
+            return new EndpointReport(name, requests, requests / seconds,
+                ok.sum(), clientErrors.sum(), serverErrors.sum(), failures.sum(),
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    static Map<String, Object> summary(Settings settings, List<EndpointReport> reports) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("users", settings.users());
+        config.put("warmup", settings.warmup().toString());
+        config.put("duration", settings.duration().toString());
+        config.put("maxUploadBytes", settings.maxUploadBytes());
+        config.put("thinkTime", settings.thinkTime().toString());
+        summary.put("settings", config);
+        summary.put("totalThroughputPerSecond", reports.stream().mapToDouble(EndpointReport::throughputPerSecond).sum());
+        summary.put("endpoints", reports);
+        return summary;
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.thebloodyamateur.incx.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.thebloodyamateur.incx.IncxApplication;
+
+/**
+ * Boots the application in-process against a local PostgreSQL, an in-memory S3 stand-in and a
+ * stubbed Open-Meteo, replays a mixed workload and prints per-endpoint throughput and latency
+ * percentiles. Everything runs on the local machine; no external network access is needed.
+ *
+ * <p>Run with {@code mvn -Ploadtest verify}. Settings are system properties:
+ * <ul>
+ *   <li>{@code loadtest.db.url}, {@code loadtest.db.username}, {@code loadtest.db.password}</li>
+ *   <li>{@code loadtest.users} (default 50), {@code loadtest.warmup} (PT10S), {@code loadtest.duration} (PT60S)</li>
+ *   <li>{@code loadtest.think-time} (PT0.05S), {@code loadtest.max-upload-bytes} (262144)</li>
+ *   <li>{@code loadtest.open-meteo.latency} (PT0.08S), {@code loadtest.open-meteo.jitter} (PT0.04S),
+ *       {@code loadtest.open-meteo.failure-rate} (0)</li>
+ *   <li>{@code loadtest.report} (target/loadtest-report.json)</li>
+ * </ul>
+ */
+public final class LoadTestHarness {
+    // The MinIO client switches to multipart uploads at 5 MiB, which the stub does not implement.
+    private static final int MAX_UPLOAD_BYTES = 5 * 1024 * 1024 - 1;
+
+    private LoadTestHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator.Settings settings = new LoadGenerator.Settings(
+            Integer.getInteger("loadtest.users", 50),
+            duration("loadtest.warmup", "PT10S"),
+            duration("loadtest.duration", "PT60S"),
+            Math.min(Integer.getInteger("loadtest.max-upload-bytes", 256 * 1024), MAX_UPLOAD_BYTES),
+            duration("loadtest.think-time", "PT0.05S"));
+        Path reportPath = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+
+        try (StubS3Server s3 = new StubS3Server();
+             StubOpenMeteoServer openMeteo = new StubOpenMeteoServer(
+                 duration("loadtest.open-meteo.latency", "PT0.08S"),
+                 duration("loadtest.open-meteo.jitter", "PT0.04S"),
+                 Double.parseDouble(System.getProperty("loadtest.open-meteo.failure-rate", "0")))) {
+
+            configure(s3, openMeteo);
+            try (ConfigurableApplicationContext context = SpringApplication.run(IncxApplication.class, args)) {
+                String port = context.getEnvironment().getProperty("local.server.port");
+                String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+                LoadGenerator generator = new LoadGenerator("http://127.0.0.1:" + port + contextPath, settings);
+
+                List<LoadGenerator.EndpointReport> reports = generator.run();
+                print(reports);
+
+                Files.createDirectories(reportPath.toAbsolutePath().getParent());
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(reportPath.toFile(), LoadGenerator.summary(settings, reports));
+                System.out.println("Report written to " + reportPath.toAbsolutePath());
+            }
+        }
+        // Scheduled executors and the invalidation listener keep non-daemon threads around.
+        System.exit(0);
+    }
+
+    /**
+     * Points the application at the stand-ins. System properties override application.properties,
+     * and anything already set on the command line wins over these defaults.
+     */
+    private static void configure(StubS3Server s3, StubOpenMeteoServer openMeteo) {
+        setDefault("spring.datasource.url", System.getProperty("loadtest.db.url", "jdbc:postgresql://localhost:5432/incx"));
+        setDefault("spring.datasource.username", System.getProperty("loadtest.db.username", "incx"));
+        setDefault("spring.datasource.password", System.getProperty("loadtest.db.password", "incx"));
+        setDefault("MINIO_URL", s3.url());
+        setDefault("MINIO_ACCESS_KEY", "loadtest");
+        setDefault("MINIO_SECRET_KEY", "loadtest-secret");
+        setDefault("incx.weather.open-meteo.forecast-url", openMeteo.forecastUrl());
+        setDefault("incx.weather.open-meteo.geocoding-url", openMeteo.geocodingUrl());
+        setDefault("incx.auth.token.secret", "loadtest-token-secret-loadtest-token-secret");
+        setDefault("incx.auth.throttle.attempts-per-minute", "100000");
+        setDefault("incx.storage.provisioning.interval", "PT0.2S");
+        setDefault("server.port", "0");
+        setDefault("spring.jpa.show-sql", "false");
+        setDefault("logging.level.root", "WARN");
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static Duration duration(String key, String fallback) {
+        return Duration.parse(System.getProperty(key, fallback));
+    }
+
+    private static void print(List<LoadGenerator.EndpointReport> reports) {
+        System.out.printf("%n%-10s %9s %9s %7s %7s %7s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "req/s", "2xx/3xx", "4xx", "5xx", "io-err", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LoadGenerator.EndpointReport r : reports) {
+            System.out.printf("%-10s %9d %9.1f %7d %7d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                r.endpoint(), r.requests(), r.throughputPerSecond(), r.ok(), r.clientErrors(), r.serverErrors(),
+                r.failures(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.p999Ms(), r.maxMs());
+        }
+    }
+}
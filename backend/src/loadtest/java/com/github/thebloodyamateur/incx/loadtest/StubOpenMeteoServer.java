@@ -0,0 +1,90 @@
+package com.github.thebloodyamateur.incx.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the benchmark forecast fixture for {@code /v1/forecast} and a fixed geocoding hit for
+ * {@code /v1/search}, after a configurable latency with uniform jitter. A failure rate lets the
+ * circuit breaker and stale-if-error paths be exercised under load.
+ */
+final class StubOpenMeteoServer implements AutoCloseable {
+    private static final byte[] GEOCODING = ("{\"results\":[{\"id\":2950159,\"name\":\"Berlin\",\"latitude\":52.52437,"
+        + "\"longitude\":13.41053,\"elevation\":74.0,\"country_code\":\"DE\",\"timezone\":\"Europe/Berlin\"}],"
+        + "\"generationtime_ms\":0.6}").getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final byte[] forecast;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double failureRate;
+
+    StubOpenMeteoServer(Duration latency, Duration jitter, double failureRate) throws IOException {
+        this.forecast = load("/fixtures/forecast-berlin.json");
+        this.latency = latency;
+        this.jitter = jitter;
+        this.failureRate = failureRate;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/forecast", exchange -> respond(exchange, forecast));
+        server.createContext("/v1/search", exchange -> respond(exchange, GEOCODING));
+        server.start();
+    }
+
+    String forecastUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/forecast";
+    }
+
+    String geocodingUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/search";
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        try (exchange) {
+            long delay = latency.toMillis();
+            if (!jitter.isZero()) {
+                delay += ThreadLocalRandom.current().nextLong(-jitter.toMillis(), jitter.toMillis() + 1);
+            }
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] load(String resource) {
+        try (InputStream in = StubOpenMeteoServer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
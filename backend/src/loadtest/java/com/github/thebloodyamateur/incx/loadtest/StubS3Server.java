@@ -0,0 +1,153 @@
+package com.github.thebloodyamateur.incx.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-memory stand-in for the part of the S3 API the MinIO client uses: bucket existence and
+ * creation, region lookup, and single-part object PUT, GET (including single ranges) and DELETE
+ * with path-style addressing.
+ * Signatures are not checked. Objects above the client's multipart threshold (5 MiB) are not
+ * supported, so the workload keeps uploads below it.
+ */
+final class StubS3Server implements AutoCloseable {
+    private static final String NS = "http://s3.amazonaws.com/doc/2006-03-01/";
+
+    private final HttpServer server;
+    private final Map<String, Map<String, byte[]>> buckets = new ConcurrentHashMap<>();
+
+    StubS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            String query = exchange.getRequestURI().getRawQuery();
+            String[] parts = path.substring(1).split("/", 2);
+            String bucket = URLDecoder.decode(parts[0], StandardCharsets.UTF_8);
+            String key = parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : null;
+            String method = exchange.getRequestMethod();
+
+            if (key == null || key.isEmpty()) {
+                handleBucket(exchange, method, bucket, query);
+            } else {
+                handleObject(exchange, method, bucket, key);
+            }
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange, String method, String bucket, String query) throws IOException {
+        if ("GET".equals(method) && query != null && query.startsWith("location")) {
+            sendXml(exchange, 200, "<LocationConstraint xmlns=\"" + NS + "\"></LocationConstraint>");
+            return;
+        }
+        switch (method) {
+            case "HEAD" -> send(exchange, buckets.containsKey(bucket) ? 200 : 404, null);
+            case "PUT" -> {
+                buckets.putIfAbsent(bucket, new ConcurrentHashMap<>());
+                exchange.getResponseHeaders().set("Location", "/" + bucket);
+                send(exchange, 200, null);
+            }
+            case "DELETE" -> send(exchange, buckets.remove(bucket) != null ? 204 : 404, null);
+            default -> sendError(exchange, 501, "NotImplemented", bucket, null);
+        }
+    }
+
+    private void handleObject(HttpExchange exchange, String method, String bucket, String key) throws IOException {
+        Map<String, byte[]> objects = buckets.get(bucket);
+        if (objects == null) {
+            drain(exchange.getRequestBody());
+            sendError(exchange, 404, "NoSuchBucket", bucket, key);
+            return;
+        }
+        switch (method) {
+            case "PUT" -> {
+                byte[] body = exchange.getRequestBody().readAllBytes();
+                objects.put(key, body);
+                exchange.getResponseHeaders().set("ETag", "\"" + UUID.nameUUIDFromBytes(body).toString().replace("-", "") + "\"");
+                send(exchange, 200, null);
+            }
+            case "GET", "HEAD" -> {
+                byte[] body = objects.get(key);
+                if (body == null) {
+                    sendError(exchange, 404, "NoSuchKey", bucket, key);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                exchange.getResponseHeaders().set("ETag", "\"" + UUID.nameUUIDFromBytes(body).toString().replace("-", "") + "\"");
+                exchange.getResponseHeaders().set("Last-Modified", "Mon, 03 Nov 2025 12:00:00 GMT");
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                if ("HEAD".equals(method)) {
+                    exchange.getResponseHeaders().set("Content-Length", Integer.toString(body.length));
+                    exchange.sendResponseHeaders(200, -1);
+                } else if (range != null && range.startsWith("bytes=")) {
+                    // Only the single "bytes=first-last" form the MinIO client sends for offset/length.
+                    String[] bounds = range.substring("bytes=".length()).split("-", 2);
+                    int first = Integer.parseInt(bounds[0]);
+                    int last = bounds[1].isEmpty() ? body.length - 1 : Math.min(Integer.parseInt(bounds[1]), body.length - 1);
+                    exchange.getResponseHeaders().set("Content-Range", "bytes " + first + "-" + last + "/" + body.length);
+                    send(exchange, 206, Arrays.copyOfRange(body, first, last + 1));
+                } else {
+                    send(exchange, 200, body);
+                }
+            }
+            case "DELETE" -> {
+                objects.remove(key);
+                send(exchange, 204, null);
+            }
+            default -> sendError(exchange, 501, "NotImplemented", bucket, key);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code, String bucket, String key) throws IOException {
+        sendXml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + code + "</Message>"
+            + "<Resource>/" + bucket + (key == null ? "" : "/" + key) + "</Resource>"
+            + "<RequestId>stub</RequestId><HostId>stub</HostId>"
+            + "<BucketName>" + bucket + "</BucketName>" + (key == null ? "" : "<Key>" + key + "</Key>") + "</Error>");
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        send(exchange, status, xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        in.transferTo(OutputStream.nullOutputStream());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
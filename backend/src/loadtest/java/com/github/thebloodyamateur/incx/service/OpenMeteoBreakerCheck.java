@@ -0,0 +1,168 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drives {@link OpenMeteoClient} against a local stub whose behaviour can be switched between
+ * healthy, failing and slow, and checks the forecast breaker's transitions: closed to open after
+ * the failure threshold, fail-fast while open, a single half-open probe after the open period,
+ * back to open on a failed probe and to closed on a successful one, and calls cut off at the
+ * latency budget. No network access or database is needed.
+ *
+ * <p>Run with {@code mvn -Ploadtest verify -Dloadtest.main=com.github.thebloodyamateur.incx.service.OpenMeteoBreakerCheck}.
+ * Exits non-zero on the first failed check.
+ */
+public final class OpenMeteoBreakerCheck {
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final Duration OPEN_DURATION = Duration.ofMillis(300);
+    private static final Duration LATENCY_BUDGET = Duration.ofSeconds(1);
+
+    private OpenMeteoBreakerCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        try (FaultyOpenMeteoStub stub = new FaultyOpenMeteoStub()) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            OpenMeteoClient client = new OpenMeteoClient(registry, stub.url("/v1/forecast"), stub.url("/v1/search"),
+                LATENCY_BUDGET, FAILURE_THRESHOLD, OPEN_DURATION);
+
+            stub.mode = Mode.HEALTHY;
+            check(succeeds(client), "healthy upstream answers");
+            expectState(registry, CircuitBreaker.State.CLOSED);
+
+            stub.mode = Mode.FAILING;
+            for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+                check(!succeeds(client), "failing upstream call " + (i + 1) + " fails");
+            }
+            expectState(registry, CircuitBreaker.State.OPEN);
+
+            int hits = stub.hits.get();
+            check(rejectedFast(client), "open breaker rejects with 503");
+            check(stub.hits.get() == hits, "open breaker does not reach the upstream");
+
+            Thread.sleep(OPEN_DURATION.toMillis() + 50);
+            check(!succeeds(client), "failed half-open probe fails");
+            expectState(registry, CircuitBreaker.State.OPEN);
+
+            // While the one probe is in flight, everything else is still rejected.
+            Thread.sleep(OPEN_DURATION.toMillis() + 50);
+            stub.mode = Mode.HEALTHY;
+            stub.delay = Duration.ofMillis(150);
+            CompletableFuture<Boolean> probe = CompletableFuture.supplyAsync(() -> succeeds(client));
+            Thread.sleep(50);
+            expectState(registry, CircuitBreaker.State.HALF_OPEN);
+            check(rejectedFast(client), "concurrent call during the half-open probe is rejected");
+            check(probe.get(), "successful half-open probe succeeds");
+            expectState(registry, CircuitBreaker.State.CLOSED);
+
+            stub.delay = LATENCY_BUDGET.multipliedBy(3);
+            long start = System.nanoTime();
+            check(!succeeds(client), "slow upstream call fails");
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            check(elapsedMillis < LATENCY_BUDGET.toMillis() + 500,
+                "slow upstream call is cut off at the latency budget (" + elapsedMillis + " ms)");
+            expectState(registry, CircuitBreaker.State.CLOSED);
+        }
+        System.out.println("All circuit breaker checks passed.");
+    }
+
+    private static boolean succeeds(OpenMeteoClient client) {
+        try {
+            client.fetchFromOpenMeteo(52.52, 13.41);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static boolean rejectedFast(OpenMeteoClient client) {
+        long start = System.nanoTime();
+        try {
+            client.fetchFromOpenMeteo(52.52, 13.41);
+            return false;
+        } catch (ResponseStatusException e) {
+            return e.getStatusCode().value() == 503 && System.nanoTime() - start < Duration.ofMillis(50).toNanos();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void expectState(SimpleMeterRegistry registry, CircuitBreaker.State expected) {
+        double state = registry.get("incx.upstream.circuit.state").tag("operation", "forecast").gauge().value();
+        check(state == expected.ordinal(), "breaker is " + expected + " (gauge " + state + ")");
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+        System.out.println("ok: " + description);
+    }
+
+    private enum Mode {
+        HEALTHY, FAILING
+    }
+
+    /** Open-Meteo stand-in whose answer and latency can be changed between calls. */
+    private static final class FaultyOpenMeteoStub implements AutoCloseable {
+        private static final byte[] FORECAST = "{\"latitude\":52.52,\"longitude\":13.41,\"hourly\":{\"time\":[]}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+        private final HttpServer server;
+        private final AtomicInteger hits = new AtomicInteger();
+        private volatile Mode mode = Mode.HEALTHY;
+        private volatile Duration delay = Duration.ZERO;
+
+        FaultyOpenMeteoStub() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", this::respond);
+            server.start();
+        }
+
+        String url(String path) {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+        }
+
+        private void respond(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                hits.incrementAndGet();
+                if (!delay.isZero()) {
+                    Thread.sleep(delay.toMillis());
+                }
+                if (mode == Mode.FAILING) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, FORECAST.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(FORECAST);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // The client gave up at its latency budget.
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.thebloodyamateur.incx.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.thebloodyamateur.incx.config.ConcurrencyLimits.Group;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds requests with 503 and {@code Retry-After} as soon as their endpoint group is at its
+ * adaptive concurrency limit, before authentication or any other work. Paths outside the groups
+ * (improvements, admin, actuator) are not limited.
+ *
+ * <p>Requests that go async (SSE, streamed responses) give their slot back when the servlet
+ * thread returns and are not used as latency samples, since their duration is set by the client.
+ * Weather subscriptions bypass the limiter entirely.
+ */
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+    private final ConcurrencyLimits limits;
+
+    public AdaptiveConcurrencyFilter(ConcurrencyLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limits.isEnabled()
+            || request.getServletPath().startsWith("/weather/subscribe")
+            || Group.of(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Group group = Group.of(request.getServletPath());
+        GradientLimiter limiter = limits.limiter(group);
+        if (!limiter.tryAcquire()) {
+            limits.rejected(group);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limits.retryAfterSeconds()));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, please retry.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            filterChain.doFilter(request, response);
+            sampled = !request.isAsyncStarted();
+        } finally {
+            if (sampled) {
+                limiter.release(System.nanoTime() - start);
+            } else {
+                limiter.release();
+            }
+        }
+    }
+}
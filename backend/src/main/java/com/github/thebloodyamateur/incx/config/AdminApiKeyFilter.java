@@ -0,0 +1,47 @@
+package com.github.thebloodyamateur.incx.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Guards {@code /admin/**} with a shared key sent as {@code X-Admin-Key}. Without a configured key
+ * the admin endpoints are disabled entirely.
+ */
+public class AdminApiKeyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Admin-Key";
+
+    private final byte[] apiKey;
+
+    public AdminApiKeyFilter(String apiKey) {
+        this.apiKey = apiKey == null || apiKey.isBlank() ? null : apiKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getServletPath().startsWith("/admin/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (apiKey == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        String header = request.getHeader(HEADER);
+        if (header == null || !MessageDigest.isEqual(apiKey, header.getBytes(StandardCharsets.UTF_8))) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Invalid admin key.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
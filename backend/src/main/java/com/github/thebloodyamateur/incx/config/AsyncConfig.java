@@ -0,0 +1,22 @@
+package com.github.thebloodyamateur.incx.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs MVC async work, in particular {@code StreamingResponseBody} downloads and exports, on
+ * virtual threads, so a long transfer to a slow client costs a small stack instead of a pooled
+ * platform thread.
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+        executor.setVirtualThreads(true);
+        configurer.setTaskExecutor(executor);
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.thebloodyamateur.incx.config;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * One {@link GradientLimiter} per endpoint group, so a slow dependency (MinIO behind files,
+ * Open-Meteo behind weather, BCrypt behind auth, the bookings table) only ever sheds its own
+ * traffic. Bounds can be tuned per group with {@code incx.concurrency.<group>.min-limit},
+ * {@code .max-limit} and {@code .initial-limit}.
+ */
+@Component
+public class ConcurrencyLimits {
+    public enum Group {
+        FILES("/files/", 200),
+        WEATHER("/weather/", 200),
+        AUTH("/auth/", 32),
+        BOOKINGS("/bookings", 100);
+
+        private final String pathPrefix;
+        private final int defaultMaxLimit;
+
+        Group(String pathPrefix, int defaultMaxLimit) {
+            this.pathPrefix = pathPrefix;
+            this.defaultMaxLimit = defaultMaxLimit;
+        }
+
+        static Group of(String servletPath) {
+            for (Group group : values()) {
+                if (servletPath.startsWith(group.pathPrefix)) {
+                    return group;
+                }
+            }
+            return null;
+        }
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final Map<Group, GradientLimiter> limiters = new EnumMap<>(Group.class);
+    private final Map<Group, Counter> rejections = new EnumMap<>(Group.class);
+
+    public ConcurrencyLimits(
+        Environment environment,
+        MeterRegistry meterRegistry,
+        @Value("${incx.concurrency.enabled:true}") boolean enabled,
+        @Value("${incx.concurrency.initial-limit:20}") int initialLimit,
+        @Value("${incx.concurrency.min-limit:4}") int minLimit,
+        @Value("${incx.concurrency.tolerance:1.5}") double tolerance,
+        @Value("${incx.concurrency.smoothing:0.2}") double smoothing,
+        @Value("${incx.concurrency.retry-after:PT1S}") Duration retryAfter
+    ) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        for (Group group : Group.values()) {
+            String prefix = "incx.concurrency." + group.tag() + ".";
+            GradientLimiter limiter = new GradientLimiter(
+                environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, minLimit),
+                environment.getProperty(prefix + "max-limit", Integer.class, group.defaultMaxLimit),
+                tolerance,
+                smoothing);
+            limiters.put(group, limiter);
+
+            Gauge.builder("incx.concurrency.limit", limiter, GradientLimiter::limit)
+                .tag("group", group.tag())
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+            Gauge.builder("incx.concurrency.inflight", limiter, GradientLimiter::inflight)
+                .tag("group", group.tag())
+                .description("Requests currently holding a concurrency slot")
+                .register(meterRegistry);
+            Gauge.builder("incx.concurrency.latency.ratio", limiter, GradientLimiter::latencyRatio)
+                .tag("group", group.tag())
+                .description("Long-term over short-term latency average; below 1 means requests are queueing")
+                .register(meterRegistry);
+            rejections.put(group, Counter.builder("incx.concurrency.rejected")
+                .tag("group", group.tag())
+                .description("Requests shed because the group was at its concurrency limit")
+                .register(meterRegistry));
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    GradientLimiter limiter(Group group) {
+        return limiters.get(group);
+    }
+
+    void rejected(Group group) {
+        rejections.get(group).increment();
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.thebloodyamateur.incx.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Lets read paths that must see their own writes opt out of replica routing. Read-only
+ * transactions normally go to the replica (see {@link ReplicaRoutingDataSource}); inside
+ * {@link #onPrimary(Supplier)} they stay on the primary. Without a configured replica this is a
+ * no-op.
+ */
+public final class DataSourceRouting {
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PINNED_TO_PRIMARY.get();
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PINNED_TO_PRIMARY.remove();
+            } else {
+                PINNED_TO_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    public static <T> T onPrimaryIf(boolean condition, Supplier<T> action) {
+        return condition ? onPrimary(action) : action.get();
+    }
+
+    static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.thebloodyamateur.incx.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit in the style of Netflix's gradient2 limiter. A fast and a slow moving
+ * average of request latency are compared: while the fast one stays within {@code tolerance} of
+ * the slow baseline the limit grows by roughly its square root, and once requests start queueing
+ * somewhere downstream the ratio shrinks the limit proportionally, down to half per update.
+ *
+ * <p>Admission is a CAS on the in-flight count and never blocks; latency updates are serialized,
+ * but they are a handful of arithmetic operations.
+ */
+class GradientLimiter {
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 1.0 / 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    GradientLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Frees the slot without feeding the latency estimate, e.g. for requests that went async. */
+    void release() {
+        inflight.decrementAndGet();
+    }
+
+    /** Frees the slot and updates the limit from the request's latency. */
+    void release(long rttNanos) {
+        int inflightBefore = inflight.getAndDecrement();
+        onSample(rttNanos, inflightBefore);
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightBefore) {
+        double rtt = rttNanos;
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+        shortRtt += (rtt - shortRtt) * SHORT_ALPHA;
+        longRtt += (rtt - longRtt) * LONG_ALPHA;
+
+        // After a latency spike has passed, let the baseline catch up instead of over-admitting.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // An idle group says nothing about how much it could take.
+        double current = limit;
+        if (inflightBefore < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+
+    double latencyRatio() {
+        synchronized (this) {
+            return shortRtt == 0 ? 1.0 : longRtt / shortRtt;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.github.thebloodyamateur.incx.config;
 
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
 import jakarta.annotation.PostConstruct;
+import okhttp3.OkHttpClient;
 import lombok.extern.slf4j.Slf4j;
 
 @Configuration
@@ -21,10 +28,16 @@ public class MinioConfig {
     private String secretKey;
 
     @Bean
-    public MinioClient minioClient() {
+    public MinioClient minioClient(MeterRegistry meterRegistry) {
+        // Same client MinIO builds by default, created here so its connection pool can be monitored.
+        long timeout = TimeUnit.MINUTES.toMillis(5);
+        OkHttpClient httpClient = HttpUtils.newDefaultHttpClient(timeout, timeout, timeout);
+        new OkHttpConnectionPoolMetrics(httpClient.connectionPool(), Tags.of("client", "minio")).bindTo(meterRegistry);
+
         return MinioClient.builder()
                 .endpoint(url)
                 .credentials(accessKey, secretKey)
+                .httpClient(httpClient)
                 .build();
     }
 
@@ -0,0 +1,83 @@
+package com.github.thebloodyamateur.incx.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically measures how far the replica trails the primary. A caught-up replica reports zero
+ * even if the primary has been idle, since replay timestamps only move when there is WAL to
+ * replay. That shortcut needs a WAL receiver that is still streaming: a disconnected one leaves
+ * receive and replay positions equal and frozen, so the lag is then taken from the last replay
+ * time and grows until the replica is dropped. Reading the receiver status needs
+ * {@code pg_read_all_stats}; without it the shortcut never applies, which is safe but marks an
+ * idle replica as lagging. Until the first successful check, and whenever a check fails, the
+ * replica is unusable. So is it once the last successful check is more than
+ * {@value #STALE_AFTER_CHECKS} check intervals old, so a stuck or starved scheduler cannot keep
+ * reads on a replica whose lag nobody is measuring.
+ */
+@Slf4j(topic = "ReplicaLagMonitor")
+public class ReplicaLagMonitor {
+    private static final String LAG_QUERY =
+        "SELECT CASE " +
+        "  WHEN NOT pg_is_in_recovery() THEN 0 " +
+        "  WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+        "    AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0 " +
+        "  ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) " +
+        "END";
+    private static final int STALE_AFTER_CHECKS = 3;
+
+    private final JdbcTemplate replica;
+    private final double maxLagSeconds;
+    private final long staleAfterNanos;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+    private volatile long lastSuccessNanos;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(2);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.staleAfterNanos = checkInterval.multipliedBy(STALE_AFTER_CHECKS).toNanos();
+        Gauge.builder("incx.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+            .baseUnit("seconds")
+            .description("Replication lag of the read replica as of the last check")
+            .register(meterRegistry);
+        Gauge.builder("incx.datasource.replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+            .description("Whether read-only transactions are currently routed to the replica")
+            .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable && System.nanoTime() - lastSuccessNanos < staleAfterNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${incx.datasource.replica.lag-check-interval:PT5S}")
+    public void check() {
+        boolean nowUsable;
+        try {
+            Double lag = replica.queryForObject(LAG_QUERY, Double.class);
+            lagSeconds = lag == null ? Double.NaN : lag;
+            nowUsable = lag != null && lag <= maxLagSeconds;
+            lastSuccessNanos = System.nanoTime();
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            nowUsable = false;
+            if (usable) {
+                log.warn("Replica lag check failed: {}", e.getMessage());
+            }
+        }
+        if (nowUsable != usable) {
+            log.info("Routing read-only transactions to the {} (lag {}s)", nowUsable ? "replica" : "primary", lagSeconds);
+        }
+        usable = nowUsable;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.thebloodyamateur.incx.config;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.thebloodyamateur.incx.service.TokenService;
+import com.github.thebloodyamateur.incx.service.TokenService.TokenClaims;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+
+/**
+ * Verifies {@code Authorization: Bearer} access tokens without any I/O and exposes the caller's
+ * user id and bucket name as request attributes. Requests without a token pass through untouched;
+ * requests with a bad token are rejected with 401, except under {@code /auth/}, where a stale
+ * token is ignored so that an expired session can still log in or refresh.
+ */
+@AllArgsConstructor
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    public static final String USER_ID_ATTRIBUTE = "incx.userId";
+    public static final String BUCKET_NAME_ATTRIBUTE = "incx.bucketName";
+    public static final String TOKEN_CLAIMS_ATTRIBUTE = "incx.tokenClaims";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenClaims claims = tokenService.verify(header.substring(BEARER_PREFIX.length()).trim(), TokenService.TokenType.ACCESS);
+        if (claims == null && request.getServletPath().startsWith("/auth/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (claims == null) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Invalid or expired access token.");
+            return;
+        }
+
+        request.setAttribute(USER_ID_ATTRIBUTE, claims.userId());
+        request.setAttribute(BUCKET_NAME_ATTRIBUTE, claims.bucketName());
+        request.setAttribute(TOKEN_CLAIMS_ATTRIBUTE, claims);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(claims.bucketName(), null, List.of()));
+        filterChain.doFilter(request, response);
+    }
+}
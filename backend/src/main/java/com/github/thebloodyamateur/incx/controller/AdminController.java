@@ -0,0 +1,68 @@
+package com.github.thebloodyamateur.incx.controller;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.github.thebloodyamateur.incx.dto.BookingPage;
+import com.github.thebloodyamateur.incx.dto.GeneralResponse;
+import com.github.thebloodyamateur.incx.service.BookingExportService;
+import com.github.thebloodyamateur.incx.service.BucketProvisioner;
+import com.github.thebloodyamateur.incx.service.BookingService;
+import com.github.thebloodyamateur.incx.service.ImprovementService;
+
+import lombok.AllArgsConstructor;
+
+@RestController
+@RequestMapping("/admin")
+@AllArgsConstructor
+public class AdminController {
+
+    private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
+    private final ImprovementService improvementService;
+    private final BucketProvisioner bucketProvisioner;
+
+    @GetMapping("/bookings")
+    public BookingPage getBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return bookingService.getAllBookingsPage(cursor, limit);
+    }
+
+    @GetMapping("/bookings/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(defaultValue = "CSV") BookingExportService.Format format) {
+        MediaType mediaType = format == BookingExportService.Format.CSV
+            ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+            : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        String filename = "bookings." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+            .contentType(mediaType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(out -> bookingExportService.export(format, out));
+    }
+
+    @PostMapping("/buckets/reprovision")
+    public ResponseEntity<GeneralResponse> reprovisionBucket(@RequestParam String bucketName) {
+        if (!bucketProvisioner.requeueFailed(bucketName)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new GeneralResponse("Bucket " + bucketName + " is not FAILED."));
+        }
+        return ResponseEntity.ok(new GeneralResponse("Bucket " + bucketName + " was queued for provisioning."));
+    }
+
+    @PostMapping("/improvements/reload")
+    public GeneralResponse reloadImprovements() {
+        int count = improvementService.reloadEverywhere();
+        return new GeneralResponse("Reloaded " + count + " improvements.");
+    }
+}
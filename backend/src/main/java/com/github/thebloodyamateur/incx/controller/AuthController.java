@@ -1,14 +1,20 @@
 package com.github.thebloodyamateur.incx.controller;
 
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.github.thebloodyamateur.incx.config.TokenAuthenticationFilter;
 import com.github.thebloodyamateur.incx.dto.GeneralResponse;
 import com.github.thebloodyamateur.incx.dto.LoginRequest;
+import com.github.thebloodyamateur.incx.dto.LoginResponse;
+import com.github.thebloodyamateur.incx.dto.TokenRefreshRequest;
 import com.github.thebloodyamateur.incx.service.AuthService;
+import com.github.thebloodyamateur.incx.service.TokenService.TokenClaims;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,8 +26,21 @@ public class AuthController {
     private AuthService userService;
 
     @PostMapping("/login")
-    public GeneralResponse login(@RequestBody LoginRequest loginRequest) {
-        return userService.login(loginRequest);
+    public LoginResponse login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        return userService.login(loginRequest, request.getRemoteAddr());
+    }
+
+    @PostMapping("/refresh")
+    public LoginResponse refresh(@RequestBody TokenRefreshRequest request) {
+        return userService.refresh(request);
+    }
+
+    @PostMapping("/logout")
+    public GeneralResponse logout(
+        @RequestAttribute(name = TokenAuthenticationFilter.TOKEN_CLAIMS_ATTRIBUTE, required = false) TokenClaims accessToken,
+        @RequestBody(required = false) TokenRefreshRequest request
+    ) {
+        return userService.logout(accessToken, request);
     }
 
     @PostMapping("/register")
@@ -1,6 +1,8 @@
 package com.github.thebloodyamateur.incx.controller;
 
+import java.time.YearMonth;
 import java.util.List;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,6 +11,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.github.thebloodyamateur.incx.dto.BookingAvailabilityResponse;
+import com.github.thebloodyamateur.incx.dto.BookingPage;
+import com.github.thebloodyamateur.incx.dto.BookingSummary;
+import com.github.thebloodyamateur.incx.dto.BulkBookingRequest;
+import com.github.thebloodyamateur.incx.dto.BulkBookingResponse;
 import com.github.thebloodyamateur.incx.persistence.model.Booking;
 import com.github.thebloodyamateur.incx.service.BookingService;
 
@@ -23,11 +30,25 @@ public class BookingController {
 
 
     @GetMapping
-    public List<Booking> getMyBookings(@RequestParam String sessionId) {
+    public List<BookingSummary> getMyBookings(@RequestParam String sessionId) {
         return bookingService.getBookingsBySession(sessionId);
     }
 
 
+    @GetMapping("/page")
+    public BookingPage getMyBookingPage(
+            @RequestParam String sessionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return bookingService.getBookingPage(sessionId, cursor, limit);
+    }
+
+    @GetMapping("/availability")
+    public BookingAvailabilityResponse getAvailability(@RequestParam YearMonth month) {
+        return bookingService.getAvailability(month);
+    }
+
+
     @PostMapping
     public ResponseEntity<?> createBooking(@RequestBody Booking booking) {
         try {
@@ -40,6 +61,20 @@ public class BookingController {
     }
 
 
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createBookings(@RequestBody BulkBookingRequest request) {
+        try {
+            BulkBookingResponse response = bookingService.createBookings(request);
+            if (response.mode() == BulkBookingRequest.Mode.ALL_OR_NOTHING && !response.committed()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+
     static class ErrorResponse {
         public String message;
         public ErrorResponse(String message) { this.message = message; }
@@ -4,23 +4,31 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.github.thebloodyamateur.incx.dto.ContentResponse;
+import com.github.thebloodyamateur.incx.dto.FileDownload;
+import com.github.thebloodyamateur.incx.dto.FileSearchPage;
 import com.github.thebloodyamateur.incx.dto.GeneralResponse;
+import com.github.thebloodyamateur.incx.dto.TrashedObjectResponse;
+import com.github.thebloodyamateur.incx.persistence.model.MinioObject.ObjectType;
+import com.github.thebloodyamateur.incx.service.FileSearchService;
 import com.github.thebloodyamateur.incx.service.FileService;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
-import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -29,6 +37,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 @AllArgsConstructor
 public class FileController {
     private FileService fileService;
+    private FileSearchService fileSearchService;
 
     @PostMapping(value = "upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<GeneralResponse> createFile(
@@ -51,17 +60,27 @@ public class FileController {
     }
 
     @GetMapping(value = "/download", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public ResponseEntity<Resource> downloadFile(
+    public ResponseEntity<StreamingResponseBody> downloadFile(
         @RequestParam String fileName,
         @RequestParam String bucketName,
-        @RequestParam(required = false, defaultValue = "") String parentDirectory
+        @RequestParam(required = false, defaultValue = "") String parentDirectory,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         log.info("Received file download request for file: {} from bucket: {} in directory: {}", fileName, bucketName, parentDirectory);
-        Resource fileResource = fileService.downloadFile(fileName, bucketName, parentDirectory);
+        FileDownload download = fileService.downloadFile(fileName, bucketName, parentDirectory, acceptsGzip(acceptEncoding));
+        HttpHeaders headers = new HttpHeaders();
+        if (download.size() >= 0) {
+            headers.setContentLength(download.size());
+        }
+        if (download.contentEncoding() != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, download.contentEncoding());
+        }
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileResource.getFilename() + "\"")
-                .body(fileResource);
+                .headers(headers)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + download.fileName() + "\"")
+                .body(download.body());
     }
     
     @PostMapping("directory")
@@ -84,6 +103,36 @@ public class FileController {
         return fileService.deleteDirectory(directoryName, parentDirectory, bucketName);
     }
 
+    @GetMapping(value = "/trash", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<TrashedObjectResponse> getTrash(@RequestParam String bucketName) {
+        return fileService.getTrash(bucketName);
+    }
+
+    @PostMapping("/trash/restore")
+    public ResponseEntity<GeneralResponse> restoreFromTrash(
+        @RequestParam String bucketName,
+        @RequestParam long id
+    ) {
+        log.info("Received restore request for trash entry {} in bucket: {}", id, bucketName);
+        return fileService.restoreFromTrash(bucketName, id);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public FileSearchPage searchFiles(
+        @RequestParam String bucketName,
+        @RequestParam String q,
+        @RequestParam(required = false) String mode,
+        @RequestParam(required = false) ObjectType type,
+        @RequestParam(required = false) Long minSize,
+        @RequestParam(required = false) Long maxSize,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return fileSearchService.search(bucketName, q, mode, type, minSize, maxSize, createdAfter, createdBefore, cursor, limit);
+    }
+
     @GetMapping(value = "/content", produces = MediaType.APPLICATION_JSON_VALUE)
     public List<ContentResponse> getContent(
         @RequestParam String bucketName,
@@ -93,4 +142,24 @@ public class FileController {
         log.info("Fetched contents for bucket: " + bucketName + " at path: " + path);
         return contents;
     }
-}
\ No newline at end of file
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
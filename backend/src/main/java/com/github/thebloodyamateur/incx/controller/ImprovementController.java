@@ -1,12 +1,15 @@
 package com.github.thebloodyamateur.incx.controller;
 
-import java.util.List;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import com.github.thebloodyamateur.incx.persistence.model.Improvement;
+import org.springframework.web.context.request.WebRequest;
 import com.github.thebloodyamateur.incx.service.ImprovementService;
+import com.github.thebloodyamateur.incx.service.ImprovementService.Payload;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,12 +22,24 @@ public class ImprovementController {
     private final ImprovementService improvementService;
 
     @GetMapping
-    public List<Improvement> getImprovements(@RequestParam(required = false) String page) {
+    public ResponseEntity<byte[]> getImprovements(@RequestParam(required = false) String page, WebRequest request) {
+        Payload payload;
         if (page != null) {
-            log.info("Fetching improvements for page: {}", page);
-            return improvementService.getImprovementsByPage(page);
+            log.debug("Fetching improvements for page: {}", page);
+            payload = improvementService.getImprovementsByPage(page);
+        } else {
+            log.debug("Fetching all improvements");
+            payload = improvementService.getAllImprovements();
         }
-        log.info("Fetching all improvements");
-        return improvementService.getAllImprovements();
+
+        // Answers 304 and sets the ETag header itself if If-None-Match matches.
+        if (request.checkNotModified(payload.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(payload.etag())
+                .body(payload.json());
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,41 @@
 package com.github.thebloodyamateur.incx.controller;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.github.thebloodyamateur.incx.dto.WeatherQuery;
 import com.github.thebloodyamateur.incx.dto.WeatherResponse;
+import com.github.thebloodyamateur.incx.dto.WeatherSeriesPoint;
+import com.github.thebloodyamateur.incx.service.WeatherHistoryService;
 import com.github.thebloodyamateur.incx.service.WeatherService;
+import com.github.thebloodyamateur.incx.service.WeatherSubscriptionService;
+import com.github.thebloodyamateur.incx.service.WeatherTile;
 
 @RestController
 @RequestMapping("/weather")
 public class WeatherController {
 
     private final WeatherService weatherService;
+    private final WeatherHistoryService weatherHistoryService;
+    private final WeatherSubscriptionService weatherSubscriptionService;
 
-    public WeatherController(WeatherService weatherService) {
+    public WeatherController(
+            WeatherService weatherService,
+            WeatherHistoryService weatherHistoryService,
+            WeatherSubscriptionService weatherSubscriptionService
+    ) {
         this.weatherService = weatherService;
+        this.weatherHistoryService = weatherHistoryService;
+        this.weatherSubscriptionService = weatherSubscriptionService;
     }
 
     @GetMapping("/current")
@@ -56,4 +74,37 @@ public class WeatherController {
         }
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Server-sent {@code weather} events carrying a {@link WeatherResponse} whenever the values for
+     * the location change. Replaces polling {@code /current} on a timer.
+     */
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestParam(name = "name", required = false) String cityName,
+            @RequestParam(name = "lat", required = false) Double latitude,
+            @RequestParam(name = "lon", required = false) Double longitude
+    ) {
+        WeatherTile tile;
+        if (cityName != null && !cityName.isBlank()) {
+            tile = weatherService.locateCity(cityName);
+        } else {
+            tile = WeatherTile.of(latitude != null ? latitude : 52.52, longitude != null ? longitude : 13.41);
+        }
+        return weatherSubscriptionService.subscribe(tile);
+    }
+
+    /**
+     * Hourly values stored from earlier Open-Meteo fetches. Times are UTC, {@code to} is exclusive.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<List<WeatherSeriesPoint>> getHistory(
+            @RequestParam(name = "lat") double latitude,
+            @RequestParam(name = "lon") double longitude,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "variables", required = false) List<String> variables
+    ) {
+        return ResponseEntity.ok(weatherHistoryService.getRange(latitude, longitude, from, to, variables));
+    }
 }
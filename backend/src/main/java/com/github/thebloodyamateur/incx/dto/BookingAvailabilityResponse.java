@@ -0,0 +1,12 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+public record BookingAvailabilityResponse(
+        YearMonth month,
+        List<LocalDate> bookedDates,
+        List<LocalDate> availableDates
+) {
+}
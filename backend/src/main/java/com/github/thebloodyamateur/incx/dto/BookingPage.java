@@ -0,0 +1,13 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last page and is
+ * otherwise passed back unchanged as {@code cursor} to fetch the following page.
+ */
+public record BookingPage(
+        List<BookingSummary> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,13 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record BookingSummary(
+        Long id,
+        LocalDate bookingDate,
+        String firstName,
+        String lastName,
+        LocalDateTime createdAt
+) {
+}
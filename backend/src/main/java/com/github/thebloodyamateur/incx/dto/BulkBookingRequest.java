@@ -0,0 +1,32 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkBookingRequest {
+    public enum Mode {
+        ALL_OR_NOTHING,
+        BEST_EFFORT
+    }
+
+    private String sessionId;
+    private Integer salutation;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String zip;
+    private String city;
+    private List<LocalDate> dates;
+    private Mode mode;
+}
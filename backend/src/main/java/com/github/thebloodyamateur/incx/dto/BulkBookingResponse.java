@@ -0,0 +1,24 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record BulkBookingResponse(
+        BulkBookingRequest.Mode mode,
+        boolean committed,
+        List<Outcome> outcomes
+) {
+    public enum Status {
+        BOOKED,
+        TAKEN,
+        DUPLICATE,
+        ABORTED
+    }
+
+    public record Outcome(
+            LocalDate date,
+            Status status,
+            Long bookingId
+    ) {
+    }
+}
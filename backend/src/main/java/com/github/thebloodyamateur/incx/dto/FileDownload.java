@@ -0,0 +1,17 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A download that has been admitted and whose object is already open; writing {@code body}
+ * streams it and frees the transfer slot. {@code size} is the length of what {@code body} writes,
+ * or -1 if unknown. {@code contentEncoding} is set when the stored compressed bytes are passed
+ * through as they are.
+ */
+public record FileDownload(
+        String fileName,
+        long size,
+        String contentEncoding,
+        StreamingResponseBody body
+) {
+}
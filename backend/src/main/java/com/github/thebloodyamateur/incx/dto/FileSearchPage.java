@@ -0,0 +1,13 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.util.List;
+
+/**
+ * One page of search results, in name order for prefix search and best match first otherwise. {@code nextCursor} is null on the last page and
+ * is otherwise passed back unchanged as {@code cursor} together with the same query and filters.
+ */
+public record FileSearchPage(
+        List<FileSearchResult> items,
+        String nextCursor
+) {
+}
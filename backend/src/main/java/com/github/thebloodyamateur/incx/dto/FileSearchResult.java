@@ -0,0 +1,18 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One search hit. {@code score} is the trigram similarity of the name to the query; it orders
+ * substring and fuzzy results and is informational for prefix results, which come in name order.
+ */
+public record FileSearchResult(
+        long id,
+        String name,
+        String type,
+        Long size,
+        String parentDirectory,
+        LocalDateTime createdAt,
+        float score
+) {
+}
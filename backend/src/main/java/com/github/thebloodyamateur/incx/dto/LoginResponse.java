@@ -1,5 +1,7 @@
 package com.github.thebloodyamateur.incx.dto;
 
+import java.time.Instant;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -15,5 +17,8 @@ public class LoginResponse {
     private Long userId;
     private String username;
     private String message;
+    private String accessToken;
+    private Instant accessTokenExpiresAt;
+    private String refreshToken;
 }
 
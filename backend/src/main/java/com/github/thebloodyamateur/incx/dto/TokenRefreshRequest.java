@@ -0,0 +1,14 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRefreshRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,16 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A deleted file or folder that can still be restored until {@code purgeAfter}.
+ */
+public record TrashedObjectResponse(
+        long id,
+        String name,
+        String type,
+        Long size,
+        LocalDateTime trashedAt,
+        LocalDateTime purgeAfter
+) {
+}
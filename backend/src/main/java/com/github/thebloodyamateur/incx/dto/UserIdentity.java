@@ -0,0 +1,13 @@
+package com.github.thebloodyamateur.incx.dto;
+
+/**
+ * The columns authentication needs, loaded without the {@code User} entity and its bucket graph.
+ */
+public record UserIdentity(
+        Long userId,
+        String username,
+        String passwordHash,
+        Long bucketId,
+        String bucketName
+) {
+}
@@ -11,7 +11,8 @@ public record WeatherResponse(
         Double cloudCover,
         Double precipitation,
         Integer weatherCode,
-        Object raw
+        Object raw,
+        boolean stale
 ) {
 }
 
@@ -0,0 +1,10 @@
+package com.github.thebloodyamateur.incx.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public record WeatherSeriesPoint(
+        LocalDateTime time,
+        Map<String, Number> values
+) {
+}
@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.SQLRestriction;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -31,6 +33,8 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "minio_objects")
+// Trashed rows only exist for TrashService; see TrashRepository.
+@SQLRestriction("trashed_at IS NULL")
 public class MinioObject {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -57,9 +61,21 @@ public class MinioObject {
     @Column(name = "size")
     private Long size;
 
+    // Set when the body in MinIO is compressed; size is then the original length.
+    @Column(name = "content_encoding")
+    private String contentEncoding;
+
+    @Column(name = "stored_size")
+    private Long storedSize;
+
     @Column(name = "minio_path")
     private String minioPath;
 
+    // Changed only by StorageTiering through AccessStatsRepository, never by saving the entity.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_tier", insertable = false, updatable = false)
+    private StorageTier storageTier;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -90,4 +106,8 @@ public class MinioObject {
     public enum ObjectType {
         FILE, FOLDER
     }
+
+    public enum StorageTier {
+        HOT, COLD
+    }
 }
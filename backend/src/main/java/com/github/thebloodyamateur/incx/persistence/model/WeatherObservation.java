@@ -0,0 +1,21 @@
+package com.github.thebloodyamateur.incx.persistence.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One hourly row of the partitioned {@code weather_observations} table. The table is written and
+ * read through JDBC (see {@code WeatherObservationRepository}) rather than JPA, because every
+ * write is a batched upsert and every read selects a caller-chosen subset of columns.
+ */
+public record WeatherObservation(
+        int tileLat,
+        int tileLon,
+        LocalDateTime observedAt,
+        Double temperature,
+        Double relativeHumidity,
+        Double precipitation,
+        Double cloudCover,
+        Double windSpeed,
+        Integer weatherCode
+) {
+}
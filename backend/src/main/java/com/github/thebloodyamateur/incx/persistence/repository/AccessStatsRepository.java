@@ -0,0 +1,97 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.github.thebloodyamateur.incx.persistence.model.MinioObject.StorageTier;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Access statistics and storage tier of {@code minio_objects}. Neither is written through the JPA
+ * entity: counters arrive in batches from AccessStats, and tier changes are conditional updates
+ * so a move that lost a race simply does nothing.
+ */
+@Repository
+@AllArgsConstructor
+public class AccessStatsRepository {
+    public record AccessDelta(long id, long count, LocalDateTime lastAccessedAt) {
+    }
+
+    public record TieringCandidate(long id, String minioPath, boolean hasColdCopy) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void applyDeltas(List<AccessDelta> deltas) {
+        jdbcTemplate.batchUpdate(
+            "UPDATE minio_objects SET access_count = access_count + ?, " +
+            "last_accessed_at = GREATEST(COALESCE(last_accessed_at, ?), ?) WHERE id = ?",
+            deltas, deltas.size(), (ps, delta) -> {
+                Timestamp at = Timestamp.valueOf(delta.lastAccessedAt());
+                ps.setLong(1, delta.count());
+                ps.setTimestamp(2, at);
+                ps.setTimestamp(3, at);
+                ps.setLong(4, delta.id());
+            }
+        );
+    }
+
+    /** Leases live hot files untouched for {@code idle}; other instances skip them until the lease ends. */
+    public List<TieringCandidate> claimIdle(Duration idle, int batchSize, Duration lease) {
+        return jdbcTemplate.query(
+            "UPDATE minio_objects SET tier_claimed_until = now() + make_interval(secs => ?) " +
+            "WHERE id IN (" +
+            "  SELECT id FROM minio_objects " +
+            "  WHERE storage_tier = 'HOT' AND type = 'FILE' AND trashed_at IS NULL " +
+            "  AND COALESCE(last_accessed_at, created_at) < now() - make_interval(secs => ?) " +
+            "  AND (tier_claimed_until IS NULL OR tier_claimed_until <= now()) " +
+            "  ORDER BY COALESCE(last_accessed_at, created_at) LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") RETURNING id, minio_path, has_cold_copy",
+            (rs, rowNum) -> new TieringCandidate(rs.getLong("id"), rs.getString("minio_path"), rs.getBoolean("has_cold_copy")),
+            (double) lease.toSeconds(), (double) idle.toSeconds(), batchSize
+        );
+    }
+
+    public void markColdCopy(long id) {
+        jdbcTemplate.update("UPDATE minio_objects SET has_cold_copy = true WHERE id = ?", id);
+    }
+
+    /**
+     * Flips a hot row to cold unless another live row has meanwhile taken its MinIO key; returns
+     * whether this call did it.
+     */
+    public boolean moveToColdIfSole(long id) {
+        return jdbcTemplate.update(
+            "UPDATE minio_objects o SET storage_tier = 'COLD', tier_claimed_until = NULL " +
+            "WHERE o.id = ? AND o.storage_tier = 'HOT' AND NOT EXISTS (SELECT 1 FROM minio_objects l " +
+            "  WHERE l.minio_path = o.minio_path AND l.id <> o.id AND l.trashed_at IS NULL)",
+            id
+        ) > 0;
+    }
+
+    /** Flips the tier if the row is still in {@code from}; returns whether this call did it. */
+    public boolean moveTier(long id, StorageTier from, StorageTier to) {
+        return jdbcTemplate.update(
+            "UPDATE minio_objects SET storage_tier = ?, tier_claimed_until = NULL WHERE id = ? AND storage_tier = ?",
+            to.name(), id, from.name()
+        ) > 0;
+    }
+
+    /** Whether another live row points at the same MinIO key, e.g. after a re-upload under the same name. */
+    public boolean isKeyShared(long id, String minioPath) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM minio_objects WHERE minio_path = ? AND id <> ? AND trashed_at IS NULL)",
+            Boolean.class, minioPath, id
+        ));
+    }
+
+    public void releaseClaim(long id) {
+        jdbcTemplate.update("UPDATE minio_objects SET tier_claimed_until = NULL WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Streams the bookings table row by row. The PostgreSQL driver only uses a server-side cursor
+ * when auto-commit is off and a fetch size is set, so callers must run inside a transaction;
+ * otherwise the whole result set is buffered on the client.
+ */
+@Repository
+public class BookingExportRepository {
+    public record BookingRow(
+        long id,
+        String sessionId,
+        Integer salutation,
+        String firstName,
+        String lastName,
+        String email,
+        String zip,
+        String city,
+        LocalDate bookingDate,
+        LocalDateTime createdAt
+    ) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingExportRepository(DataSource dataSource, @Value("${incx.bookings.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void streamAll(Consumer<BookingRow> consumer) {
+        jdbcTemplate.query(
+            "SELECT id, session_id, salutation, first_name, last_name, email, zip, city, booking_date, created_at " +
+            "FROM bookings ORDER BY id",
+            rs -> {
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                consumer.accept(new BookingRow(
+                    rs.getLong("id"),
+                    rs.getString("session_id"),
+                    rs.getObject("salutation", Integer.class),
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    rs.getString("email"),
+                    rs.getString("zip"),
+                    rs.getString("city"),
+                    rs.getDate("booking_date").toLocalDate(),
+                    createdAt == null ? null : createdAt.toLocalDateTime()
+                ));
+            }
+        );
+    }
+}
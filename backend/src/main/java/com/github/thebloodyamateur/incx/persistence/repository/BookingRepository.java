@@ -2,8 +2,12 @@ package com.github.thebloodyamateur.incx.persistence.repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.github.thebloodyamateur.incx.dto.BookingSummary;
 import com.github.thebloodyamateur.incx.persistence.model.Booking;
 
 @Repository
@@ -13,4 +17,37 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
 
     boolean existsBySessionIdAndBookingDate(String sessionId, LocalDate bookingDate);
-}
\ No newline at end of file
+
+
+    @Query("SELECT b.bookingDate FROM Booking b WHERE b.bookingDate BETWEEN :from AND :to")
+    List<LocalDate> findBookedDatesBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+
+    // Keyset pagination on (booking_date, id); the "after" variants continue behind the last row of the previous page.
+    @Query("SELECT new com.github.thebloodyamateur.incx.dto.BookingSummary(b.id, b.bookingDate, b.firstName, b.lastName, b.createdAt) " +
+           "FROM Booking b WHERE b.sessionId = :sessionId ORDER BY b.bookingDate ASC, b.id ASC")
+    List<BookingSummary> findSummariesBySession(@Param("sessionId") String sessionId, Limit limit);
+
+
+    @Query("SELECT new com.github.thebloodyamateur.incx.dto.BookingSummary(b.id, b.bookingDate, b.firstName, b.lastName, b.createdAt) " +
+           "FROM Booking b WHERE b.sessionId = :sessionId " +
+           "AND (b.bookingDate > :afterDate OR (b.bookingDate = :afterDate AND b.id > :afterId)) " +
+           "ORDER BY b.bookingDate ASC, b.id ASC")
+    List<BookingSummary> findSummariesBySessionAfter(
+        @Param("sessionId") String sessionId,
+        @Param("afterDate") LocalDate afterDate,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+
+
+    @Query("SELECT new com.github.thebloodyamateur.incx.dto.BookingSummary(b.id, b.bookingDate, b.firstName, b.lastName, b.createdAt) " +
+           "FROM Booking b ORDER BY b.bookingDate ASC, b.id ASC")
+    List<BookingSummary> findSummaries(Limit limit);
+
+
+    @Query("SELECT new com.github.thebloodyamateur.incx.dto.BookingSummary(b.id, b.bookingDate, b.firstName, b.lastName, b.createdAt) " +
+           "FROM Booking b WHERE b.bookingDate > :afterDate OR (b.bookingDate = :afterDate AND b.id > :afterId) " +
+           "ORDER BY b.bookingDate ASC, b.id ASC")
+    List<BookingSummary> findSummariesAfter(@Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Limit limit);
+}
@@ -0,0 +1,55 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.github.thebloodyamateur.incx.persistence.model.Booking;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Confirms reservations with a single conditional insert, so two sessions racing for the same
+ * date never surface a constraint violation: the loser simply gets no row back.
+ */
+@Repository
+@AllArgsConstructor
+public class BookingReservationRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the booking unless its date is already taken. Returns the stored booking with its
+     * generated id, or empty if another reservation won.
+     */
+    public Optional<Booking> insertIfAbsent(Booking booking) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<Long> ids = jdbcTemplate.query(
+            "INSERT INTO bookings (session_id, salutation, first_name, last_name, email, zip, city, booking_date, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING RETURNING id",
+            (rs, rowNum) -> rs.getLong("id"),
+            booking.getSessionId(), booking.getSalutation(), booking.getFirstName(), booking.getLastName(),
+            booking.getEmail(), booking.getZip(), booking.getCity(),
+            Date.valueOf(booking.getBookingDate()), Timestamp.valueOf(createdAt)
+        );
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        booking.setId(ids.get(0));
+        booking.setCreatedAt(createdAt);
+        return Optional.of(booking);
+    }
+
+    public List<LocalDate> findBookedDates() {
+        return jdbcTemplate.query(
+            "SELECT DISTINCT booking_date FROM bookings",
+            (rs, rowNum) -> rs.getDate("booking_date").toLocalDate()
+        );
+    }
+}
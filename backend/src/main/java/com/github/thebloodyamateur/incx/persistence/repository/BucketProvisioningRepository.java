@@ -0,0 +1,73 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Outbox access for {@code minio_buckets} rows that still need a MinIO bucket. Claiming pushes
+ * {@code next_attempt_at} out by a lease in the same statement, so concurrent workers on other
+ * instances skip the claimed rows without holding locks during the MinIO calls.
+ */
+@Repository
+@AllArgsConstructor
+public class BucketProvisioningRepository {
+    public record PendingBucket(long id, String name, int attempts) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<PendingBucket> claimDue(int batchSize, Duration lease) {
+        return jdbcTemplate.query(
+            "UPDATE minio_buckets SET provisioning_attempts = provisioning_attempts + 1, " +
+            "next_attempt_at = now() + make_interval(secs => ?) " +
+            "WHERE id IN (" +
+            "  SELECT id FROM minio_buckets WHERE status = 'PENDING' AND next_attempt_at <= now() " +
+            "  ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") RETURNING id, name, provisioning_attempts",
+            (rs, rowNum) -> new PendingBucket(rs.getLong("id"), rs.getString("name"), rs.getInt("provisioning_attempts")),
+            (double) lease.toSeconds(), batchSize
+        );
+    }
+
+    public void markReady(List<Long> ids) {
+        jdbcTemplate.batchUpdate(
+            "UPDATE minio_buckets SET status = 'READY', next_attempt_at = NULL, last_error = NULL WHERE id = ?",
+            ids, ids.size(), (ps, id) -> ps.setLong(1, id)
+        );
+    }
+
+    public void markRetry(long id, Duration delay, String error) {
+        jdbcTemplate.update(
+            "UPDATE minio_buckets SET next_attempt_at = now() + make_interval(secs => ?), last_error = ? WHERE id = ?",
+            (double) delay.toSeconds(), truncate(error), id
+        );
+    }
+
+    public void markFailed(long id, String error) {
+        jdbcTemplate.update(
+            "UPDATE minio_buckets SET status = 'FAILED', next_attempt_at = NULL, last_error = ? WHERE id = ?",
+            truncate(error), id
+        );
+    }
+
+    /** Puts a FAILED bucket back into the outbox with a fresh attempt budget. */
+    public boolean requeueFailed(long id) {
+        return jdbcTemplate.update(
+            "UPDATE minio_buckets SET status = 'PENDING', provisioning_attempts = 0, next_attempt_at = now() " +
+            "WHERE id = ? AND status = 'FAILED'",
+            id
+        ) > 0;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1024 ? error.substring(0, 1024) : error;
+    }
+}
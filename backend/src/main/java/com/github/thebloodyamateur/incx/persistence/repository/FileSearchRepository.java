@@ -0,0 +1,199 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.github.thebloodyamateur.incx.dto.FileSearchResult;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Name search over the live rows of one bucket. Each mode reads a page in an order an index can
+ * deliver, so a page costs roughly its own size rather than the number of matches:
+ * <ul>
+ *   <li>prefix walks the C-collated {@code lower(name)} btree in name order,</li>
+ *   <li>fuzzy walks the trigram GiST index nearest first ({@code name <-> query}),</li>
+ *   <li>substring takes the newest {@code substringCandidates} matches from the trigram GIN
+ *       index and ranks only those by similarity.</li>
+ * </ul>
+ * Pages are keyed by {@code (sort key, id)}, so none of them needs an OFFSET. Similarity is only
+ * computed for the rows of the page.
+ */
+@Repository
+@AllArgsConstructor
+public class FileSearchRepository {
+    public enum Mode {
+        PREFIX, SUBSTRING, FUZZY
+    }
+
+    public record Filter(String type, Long minSize, Long maxSize, LocalDateTime createdAfter, LocalDateTime createdBefore) {
+    }
+
+    /**
+     * Sort key of the last row of the previous page: the lower-cased name for prefix search, the
+     * similarity for substring search and the trigram distance for fuzzy search.
+     */
+    public record After(String key, long id) {
+    }
+
+    public record Hit(FileSearchResult result, After key) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Must run inside a transaction: fuzzy matching sets the similarity threshold for the
+     * current transaction only.
+     */
+    public List<Hit> search(long bucketId, Mode mode, String query, double fuzzyThreshold, int substringCandidates,
+                            Filter filter, After after, int limit) {
+        return switch (mode) {
+            case PREFIX -> prefix(bucketId, query, filter, after, limit);
+            case SUBSTRING -> substring(bucketId, query, substringCandidates, filter, after, limit);
+            case FUZZY -> fuzzy(bucketId, query, fuzzyThreshold, filter, after, limit);
+        };
+    }
+
+    private List<Hit> prefix(long bucketId, String query, Filter filter, After after, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = live(bucketId, "lower(o.name)", params);
+        sql.append(" AND lower(o.name) COLLATE \"C\" LIKE ? ESCAPE '\\'");
+        params.add(escapeLike(query.toLowerCase(Locale.ROOT)) + "%");
+        appendFilter(sql, params, filter);
+        if (after != null) {
+            sql.append(" AND (lower(o.name) COLLATE \"C\", o.id) > (?, ?)");
+            params.add(after.key());
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY lower(o.name) COLLATE \"C\", o.id LIMIT ?");
+        params.add(limit);
+        return page(sql, params, query, "hits.sort_key COLLATE \"C\", hits.id");
+    }
+
+    private List<Hit> substring(long bucketId, String query, int candidates, Filter filter, After after, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT c.*, similarity(c.name, ?) AS sort_key FROM (");
+        params.add(query);
+        sql.append(live(bucketId, null, params));
+        sql.append(" AND o.name ILIKE ? ESCAPE '\\'");
+        params.add("%" + escapeLike(query) + "%");
+        appendFilter(sql, params, filter);
+        sql.append(" ORDER BY o.id DESC LIMIT ?) c) ranked");
+        params.add(candidates);
+        if (after != null) {
+            sql.append(" WHERE (ranked.sort_key < ?::real OR (ranked.sort_key = ?::real AND ranked.id > ?))");
+            params.add(after.key());
+            params.add(after.key());
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY ranked.sort_key DESC, ranked.id LIMIT ?");
+        params.add(limit);
+        return page(sql, params, query, "hits.sort_key DESC, hits.id");
+    }
+
+    /**
+     * The GiST scan only orders by distance, so rows at equal distance come back in no particular
+     * order. A page is therefore fetched with one row of look-ahead, and again with a larger limit
+     * while the last row of the page ties with the rows after it, until the tie is complete and
+     * can be ordered by id.
+     */
+    private List<Hit> fuzzy(long bucketId, String query, double threshold, Filter filter, After after, int limit) {
+        jdbcTemplate.queryForObject("SELECT set_config('pg_trgm.similarity_threshold', ?, true)",
+            String.class, Double.toString(threshold));
+        for (int fetch = limit + 1; ; fetch *= 2) {
+            List<Object> params = new ArrayList<>();
+            params.add(query);
+            StringBuilder sql = live(bucketId, "o.name <-> ?", params);
+            sql.append(" AND o.name % ?");
+            params.add(query);
+            appendFilter(sql, params, filter);
+            if (after != null) {
+                sql.append(" AND ((o.name <-> ?) > ?::real OR ((o.name <-> ?) = ?::real AND o.id > ?))");
+                params.add(query);
+                params.add(after.key());
+                params.add(query);
+                params.add(after.key());
+                params.add(after.id());
+            }
+            sql.append(" ORDER BY o.name <-> ? LIMIT ?");
+            params.add(query);
+            params.add(fetch);
+
+            List<Hit> hits = page(sql, params, query, "hits.sort_key, hits.id");
+            if (hits.size() < fetch || distance(hits.get(limit - 1)) < distance(hits.get(hits.size() - 1))) {
+                return hits.subList(0, Math.min(limit, hits.size()));
+            }
+        }
+    }
+
+    private static float distance(Hit hit) {
+        return Float.parseFloat(hit.key().key());
+    }
+
+    /** Inner query over the bucket's live rows; {@code sortKey}, if given, becomes the {@code sort_key} column. */
+    private static StringBuilder live(long bucketId, String sortKey, List<Object> params) {
+        params.add(bucketId);
+        return new StringBuilder("SELECT o.id, o.name, o.type, o.size, o.created_at, o.parent_id")
+            .append(sortKey == null ? "" : ", " + sortKey + " AS sort_key")
+            .append(" FROM minio_objects o WHERE o.bucket_id = ? AND o.trashed_at IS NULL");
+    }
+
+    /** Wraps one page of the inner query with the parent name and similarity of each row. */
+    private List<Hit> page(StringBuilder inner, List<Object> innerParams, String query, String orderBy) {
+        List<Object> params = new ArrayList<>(innerParams.size() + 1);
+        params.add(query);
+        params.addAll(innerParams);
+        String sql =
+            "SELECT hits.id, hits.name, hits.type, hits.size, hits.created_at, hits.sort_key," +
+            " p.name AS parent_name, similarity(hits.name, ?) AS score" +
+            " FROM (" + inner + ") hits LEFT JOIN minio_objects p ON p.id = hits.parent_id" +
+            " ORDER BY " + orderBy;
+
+        return jdbcTemplate.query(sql,
+            (rs, rowNum) -> {
+                FileSearchResult result = new FileSearchResult(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("type"),
+                    (Long) rs.getObject("size"),
+                    rs.getString("parent_name"),
+                    rs.getTimestamp("created_at") == null ? null : rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getFloat("score"));
+                return new Hit(result, new After(rs.getString("sort_key"), result.id()));
+            },
+            params.toArray());
+    }
+
+    private static void appendFilter(StringBuilder sql, List<Object> params, Filter filter) {
+        if (filter.type() != null) {
+            sql.append(" AND o.type = ?");
+            params.add(filter.type());
+        }
+        if (filter.minSize() != null) {
+            sql.append(" AND o.size >= ?");
+            params.add(filter.minSize());
+        }
+        if (filter.maxSize() != null) {
+            sql.append(" AND o.size <= ?");
+            params.add(filter.maxSize());
+        }
+        if (filter.createdAfter() != null) {
+            sql.append(" AND o.created_at >= ?");
+            params.add(Timestamp.valueOf(filter.createdAfter()));
+        }
+        if (filter.createdBefore() != null) {
+            sql.append(" AND o.created_at < ?");
+            params.add(Timestamp.valueOf(filter.createdBefore()));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
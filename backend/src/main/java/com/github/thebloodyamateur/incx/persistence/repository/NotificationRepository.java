@@ -0,0 +1,17 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.AllArgsConstructor;
+
+@Repository
+@AllArgsConstructor
+public class NotificationRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Sends a NOTIFY outside of any transaction, so it is delivered immediately. */
+    public void notify(String channel, String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+    }
+}
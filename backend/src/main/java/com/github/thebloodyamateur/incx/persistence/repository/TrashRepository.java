@@ -0,0 +1,139 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Soft-delete bookkeeping for {@code minio_objects}. Trashed rows are invisible to the JPA entity,
+ * so everything that needs to see them goes through here. Deleting is a single UPDATE on the
+ * partial live-name index; purging claims expired rows with a lease, like bucket provisioning,
+ * so no locks are held during the MinIO calls.
+ */
+@Repository
+@AllArgsConstructor
+public class TrashRepository {
+    public record TrashedObject(long id, String name, String type, Long size, LocalDateTime trashedAt) {
+    }
+
+    public record ExpiredObject(long id, String minioPath, boolean cold, boolean hasColdCopy, boolean bodyInUse) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int trashFile(long bucketId, String name) {
+        return jdbcTemplate.update(
+            "UPDATE minio_objects SET trashed_at = now(), updated_at = now() " +
+            "WHERE bucket_id = ? AND name = ? AND type = 'FILE' AND trashed_at IS NULL",
+            bucketId, name
+        );
+    }
+
+    /** Trashes the folder only if it has no live children, in the same statement. */
+    public int trashEmptyFolder(long bucketId, String name) {
+        return jdbcTemplate.update(
+            "UPDATE minio_objects f SET trashed_at = now(), updated_at = now() " +
+            "WHERE f.bucket_id = ? AND f.name = ? AND f.type = 'FOLDER' AND f.trashed_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM minio_objects c WHERE c.parent_id = f.id AND c.trashed_at IS NULL)",
+            bucketId, name
+        );
+    }
+
+    public List<TrashedObject> findTrashed(long bucketId, Duration retention) {
+        return jdbcTemplate.query(
+            "SELECT id, name, type, size, trashed_at FROM minio_objects " +
+            "WHERE bucket_id = ? AND trashed_at > now() - make_interval(secs => ?) " +
+            "ORDER BY trashed_at DESC",
+            (rs, rowNum) -> new TrashedObject(
+                rs.getLong("id"), rs.getString("name"), rs.getString("type"),
+                (Long) rs.getObject("size"), rs.getTimestamp("trashed_at").toLocalDateTime()),
+            bucketId, (double) retention.toSeconds()
+        );
+    }
+
+    public enum RestoreResult {
+        RESTORED, NOT_FOUND, NAME_TAKEN, PARENT_TRASHED
+    }
+
+    /**
+     * Restores a trashed row within the retention window, unless a live object has taken its name
+     * meanwhile or its folder is itself in the trash.
+     */
+    public RestoreResult restore(long bucketId, long id, Duration retention) {
+        int updated = jdbcTemplate.update(
+            "UPDATE minio_objects o SET trashed_at = NULL, updated_at = now() " +
+            "WHERE o.id = ? AND o.bucket_id = ? AND o.trashed_at > now() - make_interval(secs => ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM minio_objects l " +
+            "  WHERE l.bucket_id = o.bucket_id AND l.name = o.name AND l.trashed_at IS NULL) " +
+            "AND NOT EXISTS (SELECT 1 FROM minio_objects p WHERE p.id = o.parent_id AND p.trashed_at IS NOT NULL)",
+            id, bucketId, (double) retention.toSeconds()
+        );
+        if (updated > 0) {
+            return RestoreResult.RESTORED;
+        }
+        List<Boolean> nameTaken = jdbcTemplate.query(
+            "SELECT EXISTS (SELECT 1 FROM minio_objects l " +
+            "  WHERE l.bucket_id = o.bucket_id AND l.name = o.name AND l.trashed_at IS NULL) AS taken " +
+            "FROM minio_objects o WHERE o.id = ? AND o.bucket_id = ? " +
+            "AND o.trashed_at > now() - make_interval(secs => ?)",
+            (rs, rowNum) -> rs.getBoolean("taken"),
+            id, bucketId, (double) retention.toSeconds()
+        );
+        if (nameTaken.isEmpty()) {
+            return RestoreResult.NOT_FOUND;
+        }
+        return nameTaken.get(0) ? RestoreResult.NAME_TAKEN : RestoreResult.PARENT_TRASHED;
+    }
+
+    /**
+     * A new upload overwrites the MinIO body, so trashed rows for the same key have nothing left
+     * to restore and must not let the collector delete the new body later. Rows with a cold copy
+     * are kept; their copy has to be removed first, see {@link #findTrashedWithColdCopy}.
+     */
+    public int forgetTrashed(String minioPath) {
+        return jdbcTemplate.update(
+            "DELETE FROM minio_objects WHERE minio_path = ? AND trashed_at IS NOT NULL AND NOT has_cold_copy",
+            minioPath
+        );
+    }
+
+    public List<Long> findTrashedWithColdCopy(String minioPath) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM minio_objects WHERE minio_path = ? AND trashed_at IS NOT NULL AND has_cold_copy",
+            Long.class, minioPath
+        );
+    }
+
+    /**
+     * Leases up to {@code batchSize} rows whose retention has passed. {@code bodyInUse} is set
+     * when a live row still points at the same MinIO key, in which case the hot body must stay;
+     * a cold copy always belongs to its row alone.
+     */
+    public List<ExpiredObject> claimExpired(Duration retention, int batchSize, Duration lease) {
+        return jdbcTemplate.query(
+            "UPDATE minio_objects o SET purge_claimed_until = now() + make_interval(secs => ?) " +
+            "WHERE o.id IN (" +
+            "  SELECT id FROM minio_objects " +
+            "  WHERE trashed_at <= now() - make_interval(secs => ?) " +
+            "  AND (purge_claimed_until IS NULL OR purge_claimed_until <= now()) " +
+            "  ORDER BY trashed_at LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") RETURNING o.id, o.minio_path, o.storage_tier, o.has_cold_copy, EXISTS (SELECT 1 FROM minio_objects l " +
+            "  WHERE l.minio_path = o.minio_path AND l.trashed_at IS NULL) AS body_in_use",
+            (rs, rowNum) -> new ExpiredObject(rs.getLong("id"), rs.getString("minio_path"),
+                "COLD".equals(rs.getString("storage_tier")), rs.getBoolean("has_cold_copy"), rs.getBoolean("body_in_use")),
+            (double) lease.toSeconds(), (double) retention.toSeconds(), batchSize
+        );
+    }
+
+    public void purge(List<Long> ids) {
+        jdbcTemplate.batchUpdate(
+            "DELETE FROM minio_objects WHERE id = ? AND trashed_at IS NOT NULL",
+            ids, ids.size(), (ps, id) -> ps.setLong(1, id)
+        );
+    }
+}
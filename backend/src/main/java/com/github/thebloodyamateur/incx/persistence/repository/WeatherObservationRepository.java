@@ -0,0 +1,103 @@
+package com.github.thebloodyamateur.incx.persistence.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.github.thebloodyamateur.incx.persistence.model.WeatherObservation;
+
+import lombok.AllArgsConstructor;
+
+@Repository
+@AllArgsConstructor
+public class WeatherObservationRepository {
+    private static final String TABLE = "weather_observations";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String UPSERT =
+        "INSERT INTO " + TABLE + " (tile_lat, tile_lon, observed_at, temperature, relative_humidity, precipitation, cloud_cover, wind_speed, weather_code, fetched_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now()) " +
+        "ON CONFLICT (tile_lat, tile_lon, observed_at) DO UPDATE SET " +
+        "temperature = EXCLUDED.temperature, relative_humidity = EXCLUDED.relative_humidity, " +
+        "precipitation = EXCLUDED.precipitation, cloud_cover = EXCLUDED.cloud_cover, " +
+        "wind_speed = EXCLUDED.wind_speed, weather_code = EXCLUDED.weather_code, fetched_at = EXCLUDED.fetched_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createDailyPartition(LocalDate day) {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF " + TABLE +
+            " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')"
+        );
+    }
+
+    public boolean partitionExists(LocalDate day) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partitionName(day)));
+    }
+
+    public List<LocalDate> findPartitionDays() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ?",
+            String.class, TABLE
+        ).stream()
+            .filter(name -> name.startsWith(PARTITION_PREFIX))
+            .map(name -> LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+            .toList();
+    }
+
+    public void dropDailyPartition(LocalDate day) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(day));
+    }
+
+    public void upsertAll(List<WeatherObservation> observations) {
+        jdbcTemplate.batchUpdate(UPSERT, observations, observations.size(), (ps, observation) -> {
+            ps.setInt(1, observation.tileLat());
+            ps.setInt(2, observation.tileLon());
+            ps.setObject(3, observation.observedAt());
+            ps.setObject(4, observation.temperature(), Types.REAL);
+            ps.setObject(5, observation.relativeHumidity(), Types.REAL);
+            ps.setObject(6, observation.precipitation(), Types.REAL);
+            ps.setObject(7, observation.cloudCover(), Types.REAL);
+            ps.setObject(8, observation.windSpeed(), Types.REAL);
+            ps.setObject(9, observation.weatherCode(), Types.SMALLINT);
+        });
+    }
+
+    /**
+     * Reads {@code [from, to)} for one tile with a single primary-key range scan. {@code columns}
+     * must already be validated column names; they are inlined into the select list.
+     */
+    public List<Map<String, Object>> findRange(int tileLat, int tileLon, LocalDateTime from, LocalDateTime to, List<String> columns) {
+        String sql = "SELECT observed_at, " + String.join(", ", columns) + " FROM " + TABLE +
+            " WHERE tile_lat = ? AND tile_lon = ? AND observed_at >= ? AND observed_at < ?" +
+            " ORDER BY observed_at";
+        return jdbcTemplate.query(sql, (ResultSet rs, int rowNum) -> mapRow(rs, columns), tileLat, tileLon, from, to);
+    }
+
+    private static Map<String, Object> mapRow(ResultSet rs, List<String> columns) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("observed_at", rs.getObject("observed_at", LocalDateTime.class));
+        for (String column : columns) {
+            row.put(column, rs.getObject(column));
+        }
+        return row;
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.thebloodyamateur.incx.persistence.repository.AccessStatsRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.AccessStatsRepository.AccessDelta;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind access counters for {@code minio_objects}. Recording an access only touches an
+ * in-memory counter in one of several stripes; a periodic flush swaps each stripe for an empty
+ * one and writes the accumulated counts and latest access times in a single JDBC batch.
+ *
+ * <p>The numbers are deliberately approximate: an access racing with the swap of its stripe can
+ * be lost, and a flush that fails is dropped rather than retried, so a database outage cannot
+ * make the counters grow without bound.
+ */
+@Component
+@Slf4j(topic = "AccessStats")
+public class AccessStats {
+    private static final int STRIPES = 16;
+
+    private record Pending(LongAdder count, LongAccumulator lastAccessMillis) {
+        Pending() {
+            this(new LongAdder(), new LongAccumulator(Math::max, 0));
+        }
+    }
+
+    private final AccessStatsRepository accessStatsRepository;
+    private final int maxPendingPerStripe;
+    private final AtomicReferenceArray<ConcurrentHashMap<Long, Pending>> stripes = new AtomicReferenceArray<>(STRIPES);
+    private final Counter dropped;
+
+    public AccessStats(
+        AccessStatsRepository accessStatsRepository,
+        MeterRegistry meterRegistry,
+        @Value("${incx.files.access-stats.max-pending:100000}") int maxPending
+    ) {
+        this.accessStatsRepository = accessStatsRepository;
+        this.maxPendingPerStripe = Math.max(1, maxPending / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.set(i, new ConcurrentHashMap<>());
+        }
+        this.dropped = Counter.builder("incx.files.access-stats.dropped")
+            .description("Accesses not recorded because the pending map was full")
+            .register(meterRegistry);
+    }
+
+    public void record(Long objectId) {
+        if (objectId == null) {
+            return;
+        }
+        ConcurrentHashMap<Long, Pending> stripe = stripes.get(Long.hashCode(objectId) & (STRIPES - 1));
+        Pending pending = stripe.get(objectId);
+        if (pending == null) {
+            if (stripe.size() >= maxPendingPerStripe) {
+                dropped.increment();
+                return;
+            }
+            pending = stripe.computeIfAbsent(objectId, id -> new Pending());
+        }
+        pending.count().increment();
+        pending.lastAccessMillis().accumulate(System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${incx.files.access-stats.flush-interval:PT30S}")
+    @PreDestroy
+    public void flush() {
+        List<AccessDelta> deltas = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            ConcurrentHashMap<Long, Pending> drained = stripes.getAndSet(i, new ConcurrentHashMap<>());
+            drained.forEach((id, pending) -> deltas.add(new AccessDelta(id, pending.count().sum(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(pending.lastAccessMillis().get()), ZoneId.systemDefault()))));
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            accessStatsRepository.applyDeltas(deltas);
+            log.debug("Flushed access stats for {} objects", deltas.size());
+        } catch (DataAccessException e) {
+            log.warn("Dropping access stats for {} objects: {}", deltas.size(), e.getMessage());
+        }
+    }
+}
@@ -1,77 +1,177 @@
 package com.github.thebloodyamateur.incx.service;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.github.thebloodyamateur.incx.dto.GeneralResponse;
 import com.github.thebloodyamateur.incx.dto.LoginRequest;
 import com.github.thebloodyamateur.incx.dto.LoginResponse;
+import com.github.thebloodyamateur.incx.dto.TokenRefreshRequest;
+import com.github.thebloodyamateur.incx.dto.UserIdentity;
 import com.github.thebloodyamateur.incx.dto.UserRequest;
 import com.github.thebloodyamateur.incx.persistence.model.MinioBucket;
 import com.github.thebloodyamateur.incx.persistence.model.User;
-import com.github.thebloodyamateur.incx.persistence.repository.MinioBucketsRepository;
 import com.github.thebloodyamateur.incx.persistence.repository.UserRepository;
+import com.github.thebloodyamateur.incx.service.TokenService.IssuedTokens;
+import com.github.thebloodyamateur.incx.service.TokenService.TokenClaims;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
 
 @Service
+@Timed("incx.service")
 @Slf4j(topic = "UserServiceLogger")
 @AllArgsConstructor
 public class AuthService {
+    private static final Pattern BUCKET_NAME_PATTERN = Pattern.compile("^[a-z0-9][a-z0-9.-]{1,61}[a-z0-9]$");
+
     private UserRepository userRepository;
-    private MinioBucketsRepository minioBucketsRepository;
-    private BCryptPasswordEncoder passwordEncoder;
-    private FileService fileService;
+    private PasswordHashingService passwordHashingService;
+    private TransactionTemplate transactionTemplate;
+    private TokenService tokenService;
+    private LoginThrottle loginThrottle;
+    private UserIdentityCache userIdentityCache;
+    private StorageTiering storageTiering;
+    private BucketProvisioner bucketProvisioner;
+
+    public LoginResponse login(LoginRequest loginRequest, String clientAddress) {
+        loginThrottle.acquire(loginRequest.getUsername(), clientAddress);
 
-    public GeneralResponse login(LoginRequest loginRequest) {
-        Optional<User> userOptional = userRepository.findByUsername(loginRequest.getUsername());
-        if (userOptional.isEmpty()) {
+        UserIdentity identity = userIdentityCache.get(loginRequest.getUsername());
+        if (identity == null) {
             log.warn("User with the username {} not found!", loginRequest.getUsername());
+            loginThrottle.onFailure(loginRequest.getUsername(), clientAddress);
             throw new RuntimeException("User not found");
         }
 
-        User user = userOptional.get();
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), identity.passwordHash())) {
+            loginThrottle.onFailure(loginRequest.getUsername(), clientAddress);
             throw new RuntimeException("Invalid password");
         }
+        loginThrottle.onSuccess(loginRequest.getUsername(), clientAddress);
+        // Gives a bucket whose provisioning ran out of attempts another round.
+        if (identity.bucketId() != null) {
+            bucketProvisioner.requeueFailed(identity.bucketId());
+        }
 
-        return new GeneralResponse("User " + user.getUsername() + " was logged in succesfully!");
+        if (passwordHashingService.needsRehash(identity.passwordHash())) {
+            rehash(identity, loginRequest.getPassword());
+        }
+
+        IssuedTokens tokens = tokenService.issue(identity.userId(), identity.bucketName());
+        return LoginResponse.builder()
+                .userId(identity.userId())
+                .username(identity.username())
+                .message("User " + identity.username() + " was logged in succesfully!")
+                .accessToken(tokens.accessToken())
+                .accessTokenExpiresAt(tokens.accessTokenExpiresAt())
+                .refreshToken(tokens.refreshToken())
+                .build();
     }
 
-    public GeneralResponse register(LoginRequest userRequest) {
-        log.info("Registering new user...", userRequest.getUsername());
-
-        User user = User.builder().username(userRequest.getUsername()).build();
-        user.setPassword(passwordEncoder.encode(userRequest.getPassword()));
-        
-        MinioBucket newBucket = MinioBucket.builder()
-                .name(userRequest.getUsername())
-                .user(user)
+    /**
+     * Exchanges a refresh token for a new token pair. The used refresh token is revoked, so each
+     * one can only be redeemed once; of two concurrent redemptions only the one that revokes it
+     * gets a new pair.
+     */
+    public LoginResponse refresh(TokenRefreshRequest request) {
+        TokenClaims claims = request.getRefreshToken() == null
+                ? null
+                : tokenService.verify(request.getRefreshToken(), TokenService.TokenType.REFRESH);
+        if (claims == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token.");
+        }
+        if (!tokenService.revokeOnce(claims)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token was already used.");
+        }
+
+        IssuedTokens tokens = tokenService.issue(claims.userId(), claims.bucketName());
+        return LoginResponse.builder()
+                .userId(claims.userId())
+                .username(claims.bucketName())
+                .message("Tokens refreshed.")
+                .accessToken(tokens.accessToken())
+                .accessTokenExpiresAt(tokens.accessTokenExpiresAt())
+                .refreshToken(tokens.refreshToken())
                 .build();
+    }
 
-        boolean bucketcreatedSuccessfully = fileService.createBucket(newBucket.getName());
-        if (!bucketcreatedSuccessfully) {
-            throw new RuntimeException("Failed to create bucket for user " + userRequest.getUsername());
+    public GeneralResponse logout(TokenClaims accessToken, TokenRefreshRequest request) {
+        if (accessToken != null) {
+            tokenService.revoke(accessToken);
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            TokenClaims refreshToken = tokenService.verify(request.getRefreshToken(), TokenService.TokenType.REFRESH);
+            if (refreshToken != null) {
+                tokenService.revoke(refreshToken);
+            }
         }
-        
-        userRepository.save(user);
-        minioBucketsRepository.save(newBucket);
+        return new GeneralResponse("Logged out.");
+    }
+
+    /**
+     * Stores the user and a PENDING bucket row in one transaction and returns; the MinIO bucket
+     * itself is created shortly afterwards by {@link BucketProvisioner}.
+     */
+    public GeneralResponse register(LoginRequest userRequest) {
+        log.info("Registering new user {}...", userRequest.getUsername());
+
+        // The username doubles as the MinIO bucket name, so it has to be a valid one.
+        if (userRequest.getUsername() == null || !BUCKET_NAME_PATTERN.matcher(userRequest.getUsername()).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Username must be 3-63 characters of lowercase letters, digits, dots or hyphens.");
+        }
+        // The cold tier bucket lives in the same namespace as user buckets.
+        if (userRequest.getUsername().equals(storageTiering.coldBucket()) || userRepository.existsByUsername(userRequest.getUsername())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username is already taken.");
+        }
+
+        // Hash before opening the transaction so no connection is held while BCrypt runs.
+        String encodedPassword = passwordHashingService.encode(userRequest.getPassword());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = User.builder().username(userRequest.getUsername()).build();
+            user.setPassword(encodedPassword);
+
+            MinioBucket newBucket = MinioBucket.builder()
+                    .name(userRequest.getUsername())
+                    .user(user)
+                    .status(MinioBucket.Status.PENDING)
+                    .build();
+            user.setMinioBucket(newBucket);
+
+            userRepository.save(user);
+        });
+        userIdentityCache.invalidate(userRequest.getUsername());
 
         return new GeneralResponse("User registered succesfully!");
     }
 
     public GeneralResponse resetPassword(LoginRequest request) {
         log.info("Resetting password for user {}", request.getUsername());
-        Optional<User> userOptional = userRepository.findByUsername(request.getUsername());
-        if (userOptional.isEmpty()) {
+        UserIdentity identity = userIdentityCache.get(request.getUsername());
+        if (identity == null) {
              throw new RuntimeException("User not found");
         }
-        User user = userOptional.get();
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        userRepository.save(user);
+        userRepository.updatePassword(identity.userId(), passwordHashingService.encode(request.getPassword()), LocalDateTime.now());
+        userIdentityCache.invalidate(identity.username());
         return new GeneralResponse("Password reset successfully!");
     }
+
+    // Best effort: the login already succeeded, so a busy hashing pool only postpones the upgrade.
+    private void rehash(UserIdentity identity, String rawPassword) {
+        try {
+            userRepository.updatePassword(identity.userId(), passwordHashingService.encode(rawPassword), LocalDateTime.now());
+            userIdentityCache.invalidate(identity.username());
+            log.info("Rehashed password of user {} with the current work factor", identity.username());
+        } catch (ResponseStatusException e) {
+            log.debug("Skipping rehash for user {}: {}", identity.username(), e.getReason());
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.thebloodyamateur.incx.persistence.repository.BookingReservationRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory calendar of taken dates: one 31-bit mask per month, bit {@code n - 1} set when day
+ * {@code n} is booked. Reservations flip bits with compare-and-set, so the hot path never locks
+ * and availability queries never reach the database. The database stays authoritative; the
+ * bitmap only filters out requests that are certain to lose.
+ */
+@Component
+@Slf4j(topic = "BookingAvailability")
+public class BookingAvailability {
+
+    private static final String TOPIC = "booking-dates";
+
+    private final BookingReservationRepository reservationRepository;
+    private final InvalidationBus invalidationBus;
+    private final Map<YearMonth, AtomicInteger> months = new ConcurrentHashMap<>();
+
+    public BookingAvailability(BookingReservationRepository reservationRepository, InvalidationBus invalidationBus) {
+        this.reservationRepository = reservationRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(TOPIC, date -> markTaken(LocalDate.parse(date)), this::resync);
+    }
+
+    /**
+     * Marks the date as taken. Returns false if it already was, in which case the caller lost the
+     * race and must not insert.
+     */
+    public boolean tryReserve(LocalDate date) {
+        AtomicInteger mask = months.computeIfAbsent(YearMonth.from(date), month -> new AtomicInteger());
+        int bit = bit(date);
+        int current;
+        do {
+            current = mask.get();
+            if ((current & bit) != 0) {
+                return false;
+            }
+        } while (!mask.compareAndSet(current, current | bit));
+        return true;
+    }
+
+    /** Undoes a reservation whose insert failed for reasons other than a conflict. */
+    public void release(LocalDate date) {
+        AtomicInteger mask = months.get(YearMonth.from(date));
+        if (mask != null) {
+            int bit = bit(date);
+            mask.accumulateAndGet(bit, (current, cleared) -> current & ~cleared);
+        }
+    }
+
+    /** Marks a date as taken without contending for it, e.g. after another instance booked it. */
+    public void markTaken(LocalDate date) {
+        months.computeIfAbsent(YearMonth.from(date), month -> new AtomicInteger())
+            .accumulateAndGet(bit(date), (current, set) -> current | set);
+    }
+
+    /** Announces a stored booking to the other instances, so their calendars do not wait for a resync. */
+    public void confirmed(LocalDate date) {
+        invalidationBus.publish(TOPIC, date.toString());
+    }
+
+    public List<LocalDate> takenDates(YearMonth month) {
+        AtomicInteger mask = months.get(month);
+        int bits = mask == null ? 0 : mask.get();
+        List<LocalDate> taken = new ArrayList<>(Integer.bitCount(bits));
+        while (bits != 0) {
+            int day = Integer.numberOfTrailingZeros(bits) + 1;
+            taken.add(month.atDay(day));
+            bits &= bits - 1;
+        }
+        return taken;
+    }
+
+    public List<LocalDate> freeDates(YearMonth month) {
+        AtomicInteger mask = months.get(month);
+        int bits = mask == null ? 0 : mask.get();
+        List<LocalDate> free = new ArrayList<>(month.lengthOfMonth() - Integer.bitCount(bits));
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            if ((bits & (1 << (day - 1))) == 0) {
+                free.add(month.atDay(day));
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Merges the booked dates from the database into the bitmap. Bookings are never deleted, so
+     * OR-ing is enough and concurrent reservations are never lost. Also runs whenever the
+     * invalidation bus reconnects; the periodic run only backs up lost notifications.
+     */
+    @Scheduled(fixedDelayString = "${incx.bookings.availability.resync-interval:PT5M}")
+    public void resync() {
+        List<LocalDate> booked = reservationRepository.findBookedDates();
+        booked.forEach(this::markTaken);
+        log.debug("Synchronized {} booked dates across {} months", booked.size(), months.size());
+    }
+
+    private static int bit(LocalDate date) {
+        return 1 << (date.getDayOfMonth() - 1);
+    }
+}
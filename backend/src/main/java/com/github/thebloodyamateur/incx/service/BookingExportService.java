@@ -0,0 +1,117 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.github.thebloodyamateur.incx.persistence.repository.BookingExportRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.BookingExportRepository.BookingRow;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes every booking to an output stream as CSV or newline-delimited JSON. Rows are read from a
+ * server-side cursor and written as they arrive, so memory use does not grow with the table.
+ */
+@Service
+@Slf4j(topic = "BookingExportService")
+public class BookingExportService {
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String CSV_HEADER =
+        "id,session_id,salutation,first_name,last_name,email,zip,city,booking_date,created_at\n";
+
+    private final BookingExportRepository exportRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public BookingExportService(
+        BookingExportRepository exportRepository,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper
+    ) {
+        this.exportRepository = exportRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(Format format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long[] rows = new long[1];
+        try {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                readOnlyTransaction.executeWithoutResult(status -> exportRepository.streamAll(row -> {
+                    writeCsv(writer, row);
+                    rows[0]++;
+                }));
+            } else {
+                try (SequenceWriter sequence = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer)) {
+                    readOnlyTransaction.executeWithoutResult(status -> exportRepository.streamAll(row -> {
+                        try {
+                            sequence.write(row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }));
+                }
+            }
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is closed by the rolled back transaction.
+            log.warn("Booking export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        log.info("Exported {} bookings as {} in {} ms", rows[0], format, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static void writeCsv(Writer writer, BookingRow row) {
+        try {
+            writer.write(Long.toString(row.id()));
+            writeCsvField(writer, row.sessionId());
+            writeCsvField(writer, row.salutation() == null ? null : row.salutation().toString());
+            writeCsvField(writer, row.firstName());
+            writeCsvField(writer, row.lastName());
+            writeCsvField(writer, row.email());
+            writeCsvField(writer, row.zip());
+            writeCsvField(writer, row.city());
+            writeCsvField(writer, row.bookingDate().toString());
+            writeCsvField(writer, row.createdAt() == null ? null : row.createdAt().toString());
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,34 +1,246 @@
 package com.github.thebloodyamateur.incx.service;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import com.github.thebloodyamateur.incx.config.DataSourceRouting;
+import com.github.thebloodyamateur.incx.dto.BookingAvailabilityResponse;
+import com.github.thebloodyamateur.incx.dto.BookingPage;
+import com.github.thebloodyamateur.incx.dto.BookingSummary;
+import com.github.thebloodyamateur.incx.dto.BulkBookingRequest;
+import com.github.thebloodyamateur.incx.dto.BulkBookingRequest.Mode;
+import com.github.thebloodyamateur.incx.dto.BulkBookingResponse;
+import com.github.thebloodyamateur.incx.dto.BulkBookingResponse.Outcome;
+import com.github.thebloodyamateur.incx.dto.BulkBookingResponse.Status;
 import com.github.thebloodyamateur.incx.persistence.model.Booking;
 import com.github.thebloodyamateur.incx.persistence.repository.BookingRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.BookingReservationRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @AllArgsConstructor
+@Timed("incx.service")
 @Slf4j(topic = "BookingService")
 public class BookingService {
 
+    private static final int MAX_BULK_DATES = 62;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String WRITE_SCOPE = "bookings";
+
     private final BookingRepository bookingRepository;
+    private final BookingReservationRepository reservationRepository;
+    private final BookingAvailability availability;
+    private final TransactionTemplate transactionTemplate;
+    private final RecentWrites recentWrites;
 
 
     public Booking createBooking(Booking booking) {
         log.info("Versuche Buchung für Datum {} (Session: {})", booking.getBookingDate(), booking.getSessionId());
 
+        if (booking.getBookingDate() == null) {
+            throw new IllegalArgumentException("Bitte wähle einen Termin.");
+        }
+        if (!availability.tryReserve(booking.getBookingDate())) {
+            log.warn("Termin {} ist bereits belegt!", booking.getBookingDate());
+            throw new IllegalArgumentException("Dieser Termin ist bereits vergeben.");
+        }
+
+        recentWrites.mark(WRITE_SCOPE, booking.getSessionId());
+        try {
+            Booking saved = reservationRepository.insertIfAbsent(booking).orElseThrow(() -> {
+                // Booked through another instance since the last resync; the bit stays set.
+                log.warn("Termin {} wurde parallel vergeben!", booking.getBookingDate());
+                return new IllegalArgumentException("Dieser Termin ist bereits vergeben.");
+            });
+            availability.confirmed(saved.getBookingDate());
+            return saved;
+        } catch (RuntimeException e) {
+            if (!(e instanceof IllegalArgumentException)) {
+                availability.release(booking.getBookingDate());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Books several dates for one session. Taken dates are found with a single range query plus
+     * the availability bitmap; the remaining dates are inserted in one batched transaction.
+     * {@link Mode#ALL_OR_NOTHING} books nothing unless every date is free, {@link Mode#BEST_EFFORT}
+     * books whatever is still available.
+     */
+    public BulkBookingResponse createBookings(BulkBookingRequest request) {
+        List<LocalDate> dates = request.getDates();
+        if (request.getSessionId() == null || request.getSessionId().isBlank()) {
+            throw new IllegalArgumentException("Session fehlt.");
+        }
+        if (dates == null || dates.isEmpty() || dates.contains(null)) {
+            throw new IllegalArgumentException("Bitte wähle mindestens einen Termin.");
+        }
+        if (dates.size() > MAX_BULK_DATES) {
+            throw new IllegalArgumentException("Es können höchstens " + MAX_BULK_DATES + " Termine auf einmal gebucht werden.");
+        }
+        Mode mode = request.getMode() == null ? Mode.ALL_OR_NOTHING : request.getMode();
+        log.info("Versuche {} Buchungen für Session {} ({})", dates.size(), request.getSessionId(), mode);
+
+        Set<LocalDate> taken = new HashSet<>(bookingRepository.findBookedDatesBetween(
+            Collections.min(dates), Collections.max(dates)));
+
+        Map<LocalDate, Status> statuses = new HashMap<>();
+        List<LocalDate> reserved = new ArrayList<>();
+        for (LocalDate date : dates) {
+            if (statuses.containsKey(date)) {
+                continue;
+            }
+            if (taken.contains(date)) {
+                availability.markTaken(date);
+                statuses.put(date, Status.TAKEN);
+            } else if (!availability.tryReserve(date)) {
+                statuses.put(date, Status.TAKEN);
+            } else {
+                reserved.add(date);
+            }
+        }
+
+        Map<LocalDate, Long> bookingIds = new HashMap<>();
+        recentWrites.mark(WRITE_SCOPE, request.getSessionId());
+        if (mode == Mode.ALL_OR_NOTHING && statuses.containsValue(Status.TAKEN)) {
+            abort(reserved, statuses);
+        } else if (!reserved.isEmpty()) {
+            try {
+                List<Booking> saved = transactionTemplate.execute(status ->
+                    bookingRepository.saveAllAndFlush(reserved.stream().map(date -> toBooking(request, date)).toList()));
+                saved.forEach(booking -> bookingIds.put(booking.getBookingDate(), booking.getId()));
+                reserved.forEach(date -> {
+                    statuses.put(date, Status.BOOKED);
+                    availability.confirmed(date);
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance booked one of the dates after our range query.
+                log.warn("Sammelbuchung für Session {} kollidiert mit einer parallelen Buchung", request.getSessionId());
+                if (mode == Mode.ALL_OR_NOTHING) {
+                    abort(reserved, statuses);
+                } else {
+                    for (LocalDate date : reserved) {
+                        reservationRepository.insertIfAbsent(toBooking(request, date)).ifPresentOrElse(
+                            booking -> {
+                                bookingIds.put(date, booking.getId());
+                                statuses.put(date, Status.BOOKED);
+                                availability.confirmed(date);
+                            },
+                            () -> statuses.put(date, Status.TAKEN));
+                    }
+                }
+            }
+        }
+
+        Set<LocalDate> reported = new HashSet<>();
+        List<Outcome> outcomes = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            Status status = reported.add(date) ? statuses.get(date) : Status.DUPLICATE;
+            outcomes.add(new Outcome(date, status, status == Status.BOOKED ? bookingIds.get(date) : null));
+        }
+        return new BulkBookingResponse(mode, !bookingIds.isEmpty(), outcomes);
+    }
 
-        if (bookingRepository.existsBySessionIdAndBookingDate(booking.getSessionId(), booking.getBookingDate())) {
-            log.warn("Termin {} ist für Session {} bereits belegt!", booking.getBookingDate(), booking.getSessionId());
-            throw new IllegalArgumentException("Du hast diesen Termin bereits gebucht.");
+    private void abort(List<LocalDate> reserved, Map<LocalDate, Status> statuses) {
+        for (LocalDate date : reserved) {
+            availability.release(date);
+            statuses.put(date, Status.ABORTED);
         }
+    }
 
-        return bookingRepository.save(booking);
+    private static Booking toBooking(BulkBookingRequest request, LocalDate date) {
+        return Booking.builder()
+            .sessionId(request.getSessionId())
+            .salutation(request.getSalutation())
+            .firstName(request.getFirstName())
+            .lastName(request.getLastName())
+            .email(request.getEmail())
+            .zip(request.getZip())
+            .city(request.getCity())
+            .bookingDate(date)
+            .build();
     }
 
   
-    public List<Booking> getBookingsBySession(String sessionId) {
-        return bookingRepository.findBySessionIdOrderByBookingDateAsc(sessionId);
+    // A session that just booked must see its booking, so its reads skip the replica for a while.
+    @Transactional(readOnly = true)
+    public List<BookingSummary> getBookingsBySession(String sessionId) {
+        return DataSourceRouting.onPrimaryIf(recentWrites.isRecent(WRITE_SCOPE, sessionId),
+            () -> bookingRepository.findSummariesBySession(sessionId, Limit.unlimited()));
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getBookingPage(String sessionId, String cursor, Integer limit) {
+        Limit pageLimit = pageLimit(limit);
+        BookingSummary after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        List<BookingSummary> items = DataSourceRouting.onPrimaryIf(recentWrites.isRecent(WRITE_SCOPE, sessionId), () -> after == null
+            ? bookingRepository.findSummariesBySession(sessionId, pageLimit)
+            : bookingRepository.findSummariesBySessionAfter(sessionId, after.bookingDate(), after.id(), pageLimit));
+        return toPage(items, pageLimit);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getAllBookingsPage(String cursor, Integer limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<BookingSummary> items;
+        if (cursor == null || cursor.isBlank()) {
+            items = bookingRepository.findSummaries(pageLimit);
+        } else {
+            BookingSummary after = decodeCursor(cursor);
+            items = bookingRepository.findSummariesAfter(after.bookingDate(), after.id(), pageLimit);
+        }
+        return toPage(items, pageLimit);
+    }
+
+    private static Limit pageLimit(Integer limit) {
+        if (limit == null) {
+            return Limit.of(DEFAULT_PAGE_SIZE);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        return Limit.of(limit);
+    }
+
+    // The cursor is the sort key of the last row handed out: "<booking date>:<id>".
+    private static BookingPage toPage(List<BookingSummary> items, Limit limit) {
+        if (items.size() < limit.max()) {
+            return new BookingPage(items, null);
+        }
+        BookingSummary last = items.get(items.size() - 1);
+        return new BookingPage(items, last.bookingDate() + ":" + last.id());
+    }
+
+    private static BookingSummary decodeCursor(String cursor) {
+        int separator = cursor.indexOf(':');
+        try {
+            return new BookingSummary(
+                Long.parseLong(cursor.substring(separator + 1)),
+                LocalDate.parse(cursor.substring(0, separator)),
+                null, null, null);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.");
+        }
+    }
+
+    public BookingAvailabilityResponse getAvailability(YearMonth month) {
+        return new BookingAvailabilityResponse(month, availability.takenDates(month), availability.freeDates(month));
     }
 }
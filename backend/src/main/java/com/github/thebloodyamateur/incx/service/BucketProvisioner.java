@@ -0,0 +1,111 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.github.thebloodyamateur.incx.persistence.model.MinioBucket;
+import com.github.thebloodyamateur.incx.persistence.repository.BucketProvisioningRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.BucketProvisioningRepository.PendingBucket;
+import com.github.thebloodyamateur.incx.persistence.repository.MinioBucketsRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background worker that creates the MinIO buckets of newly registered users. Failed attempts are
+ * retried with exponential backoff until {@code max-attempts}, after which the bucket is marked
+ * FAILED. A FAILED bucket is re-queued when its owner logs in or through the admin API.
+ */
+@Service
+@Slf4j(topic = "BucketProvisioner")
+public class BucketProvisioner {
+    private final BucketProvisioningRepository provisioningRepository;
+    private final MinioBucketsRepository minioBucketsRepository;
+    private final FileService fileService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    public BucketProvisioner(
+        BucketProvisioningRepository provisioningRepository,
+        MinioBucketsRepository minioBucketsRepository,
+        FileService fileService,
+        @Value("${incx.storage.provisioning.batch-size:50}") int batchSize,
+        @Value("${incx.storage.provisioning.max-attempts:10}") int maxAttempts,
+        @Value("${incx.storage.provisioning.lease:PT1M}") Duration lease,
+        @Value("${incx.storage.provisioning.base-backoff:PT2S}") Duration baseBackoff,
+        @Value("${incx.storage.provisioning.max-backoff:PT10M}") Duration maxBackoff
+    ) {
+        this.provisioningRepository = provisioningRepository;
+        this.minioBucketsRepository = minioBucketsRepository;
+        this.fileService = fileService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Scheduled(fixedDelayString = "${incx.storage.provisioning.interval:PT1S}")
+    public void provisionPending() {
+        List<PendingBucket> batch;
+        do {
+            batch = provisioningRepository.claimDue(batchSize, lease);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<Long> ready = new ArrayList<>(batch.size());
+            for (PendingBucket bucket : batch) {
+                if (fileService.createBucket(bucket.name())) {
+                    ready.add(bucket.id());
+                } else {
+                    handleFailure(bucket);
+                }
+            }
+            if (!ready.isEmpty()) {
+                provisioningRepository.markReady(ready);
+            }
+            log.info("Provisioned {} of {} pending buckets", ready.size(), batch.size());
+        } while (batch.size() == batchSize);
+    }
+
+    /** Returns whether the bucket was FAILED and is now pending again. */
+    public boolean requeueFailed(long bucketId) {
+        boolean requeued = provisioningRepository.requeueFailed(bucketId);
+        if (requeued) {
+            log.info("Re-queued failed bucket {} for provisioning", bucketId);
+        }
+        return requeued;
+    }
+
+    public boolean requeueFailed(String bucketName) {
+        MinioBucket bucket = minioBucketsRepository.findByBucketName(bucketName)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Bucket not found."));
+        return requeueFailed(bucket.getId());
+    }
+
+    private void handleFailure(PendingBucket bucket) {
+        String error = "MinIO bucket creation failed on attempt " + bucket.attempts();
+        if (bucket.attempts() >= maxAttempts) {
+            log.error("Giving up on bucket '{}' after {} attempts", bucket.name(), bucket.attempts());
+            provisioningRepository.markFailed(bucket.id(), error);
+            return;
+        }
+        long factor = 1L << Math.min(bucket.attempts() - 1, 20);
+        Duration delay = baseBackoff.multipliedBy(factor);
+        if (delay.compareTo(maxBackoff) > 0) {
+            delay = maxBackoff;
+        }
+        log.warn("Bucket '{}' could not be created, retrying in {}", bucket.name(), delay);
+        provisioningRepository.markRetry(bucket.id(), delay, error);
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission and copying for file downloads. A transfer holds one global slot and one of its
+ * user's slots from before the object is opened until the last byte is written, so the number of
+ * open MinIO streams and copy buffers is bounded no matter how slow the clients are.
+ *
+ * <p>Copy buffers are fixed-size byte arrays recycled through a pool sized to the global limit;
+ * both ends are plain streams, so a direct buffer would only add a copy. The copy itself runs on
+ * the MVC async executor (virtual threads, see {@code AsyncConfig}), not on a servlet thread.
+ * A transfer that makes no progress for the stall timeout is aborted by a periodic sweep.
+ */
+@Component
+@Slf4j(topic = "DownloadTransfers")
+public class DownloadTransfers {
+    private final int perUserLimit;
+    private final int bufferSize;
+    private final long stallNanos;
+
+    private final Semaphore globalSlots;
+    private final ArrayBlockingQueue<byte[]> buffers;
+    private final ConcurrentHashMap<String, AtomicInteger> perUser = new ConcurrentHashMap<>();
+    private final Set<Transfer> active = ConcurrentHashMap.newKeySet();
+
+    private final Counter rejectedBusy;
+    private final Counter rejectedPerUser;
+    private final Counter stalled;
+
+    public DownloadTransfers(
+        MeterRegistry meterRegistry,
+        @Value("${incx.files.download.max-transfers:4096}") int maxTransfers,
+        @Value("${incx.files.download.max-transfers-per-user:4}") int perUserLimit,
+        @Value("${incx.files.download.buffer-size:16384}") int bufferSize,
+        @Value("${incx.files.download.stall-timeout:PT30S}") Duration stallTimeout
+    ) {
+        this.perUserLimit = perUserLimit;
+        this.bufferSize = bufferSize;
+        this.stallNanos = stallTimeout.toNanos();
+        this.globalSlots = new Semaphore(maxTransfers);
+        this.buffers = new ArrayBlockingQueue<>(maxTransfers);
+
+        Gauge.builder("incx.downloads.active", active, Set::size)
+            .description("Downloads currently streaming")
+            .register(meterRegistry);
+        Gauge.builder("incx.downloads.buffers.pooled", buffers, ArrayBlockingQueue::size)
+            .description("Idle copy buffers kept for reuse")
+            .register(meterRegistry);
+        rejectedBusy = Counter.builder("incx.downloads.rejected").tag("reason", "busy").register(meterRegistry);
+        rejectedPerUser = Counter.builder("incx.downloads.rejected").tag("reason", "per-user").register(meterRegistry);
+        stalled = Counter.builder("incx.downloads.stalled").register(meterRegistry);
+    }
+
+    /** Admission ticket for one download; release it if the transfer never starts. */
+    public final class Slot {
+        private final String user;
+        private boolean released;
+
+        private Slot(String user) {
+            this.user = user;
+        }
+
+        public synchronized void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            perUser.computeIfPresent(user, (key, count) -> count.decrementAndGet() == 0 ? null : count);
+            globalSlots.release();
+        }
+    }
+
+    /**
+     * Reserves a transfer slot for {@code user}, failing fast with 429 when the user already has
+     * the maximum number of downloads running and with 503 when the server-wide limit is reached.
+     */
+    public Slot acquire(String user) {
+        AtomicInteger count = perUser.compute(user, (key, current) -> {
+            AtomicInteger next = current == null ? new AtomicInteger() : current;
+            next.incrementAndGet();
+            return next;
+        });
+        if (count.get() > perUserLimit) {
+            perUser.computeIfPresent(user, (key, current) -> current.decrementAndGet() == 0 ? null : current);
+            rejectedPerUser.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many concurrent downloads.");
+        }
+        if (!globalSlots.tryAcquire()) {
+            perUser.computeIfPresent(user, (key, current) -> current.decrementAndGet() == 0 ? null : current);
+            rejectedBusy.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many downloads in progress, please retry.");
+        }
+        return new Slot(user);
+    }
+
+    /**
+     * Response body that copies {@code content} to the client and then closes it and releases
+     * {@code slot}, whether the copy finished, failed or was aborted.
+     */
+    public StreamingResponseBody stream(Slot slot, InputStream content) {
+        return out -> {
+            Transfer transfer = new Transfer(content);
+            active.add(transfer);
+            byte[] buffer = borrowBuffer();
+            try (content) {
+                transfer.copy(buffer, out);
+            } finally {
+                active.remove(transfer);
+                buffers.offer(buffer);
+                slot.release();
+            }
+        };
+    }
+
+    private byte[] borrowBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    @Scheduled(fixedDelayString = "${incx.files.download.stall-check-interval:PT5S}")
+    public void abortStalled() {
+        long now = System.nanoTime();
+        for (Transfer transfer : active) {
+            if (now - transfer.lastProgress > stallNanos && transfer.abort()) {
+                stalled.increment();
+                log.warn("Aborted a download that made no progress for {}s", stallNanos / 1_000_000_000);
+            }
+        }
+    }
+
+    private static final class Transfer {
+        private final InputStream content;
+        private volatile long lastProgress = System.nanoTime();
+        private volatile Thread thread;
+        private volatile boolean aborted;
+
+        Transfer(InputStream content) {
+            this.content = content;
+        }
+
+        void copy(byte[] buffer, OutputStream out) throws IOException {
+            thread = Thread.currentThread();
+            try {
+                int read;
+                while ((read = content.read(buffer)) >= 0) {
+                    if (aborted) {
+                        throw new InterruptedIOException("Download stalled");
+                    }
+                    out.write(buffer, 0, read);
+                    lastProgress = System.nanoTime();
+                }
+                out.flush();
+            } catch (IOException e) {
+                if (aborted) {
+                    throw new InterruptedIOException("Download stalled");
+                }
+                throw e;
+            } finally {
+                thread = null;
+                // Don't leak the abort's interrupt into whatever runs next on this thread.
+                Thread.interrupted();
+            }
+        }
+
+        /** Unblocks a stuck upstream read or client write; the copying thread then fails. */
+        boolean abort() {
+            if (aborted) {
+                return false;
+            }
+            aborted = true;
+            try {
+                content.close();
+            } catch (IOException e) {
+                // The copy loop reports the failure.
+            }
+            Thread copying = thread;
+            if (copying != null) {
+                copying.interrupt();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.github.thebloodyamateur.incx.config.DataSourceRouting;
+import com.github.thebloodyamateur.incx.dto.FileSearchPage;
+import com.github.thebloodyamateur.incx.dto.FileSearchResult;
+import com.github.thebloodyamateur.incx.persistence.model.MinioBucket;
+import com.github.thebloodyamateur.incx.persistence.model.MinioObject.ObjectType;
+import com.github.thebloodyamateur.incx.persistence.repository.FileSearchRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.FileSearchRepository.After;
+import com.github.thebloodyamateur.incx.persistence.repository.FileSearchRepository.Filter;
+import com.github.thebloodyamateur.incx.persistence.repository.FileSearchRepository.Hit;
+import com.github.thebloodyamateur.incx.persistence.repository.FileSearchRepository.Mode;
+import com.github.thebloodyamateur.incx.persistence.repository.MinioBucketsRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Filename search across one bucket, regardless of directory. Substring and fuzzy queries need
+ * at least three characters, the length of one trigram; anything shorter cannot use the index
+ * and would scan the whole bucket.
+ *
+ * <p>Prefix results come in name order, fuzzy results closest first. Substring results are the
+ * newest {@code incx.files.search.substring-candidates} matches ranked by similarity; a query
+ * matching more files than that has to be narrowed to reach the older ones.
+ */
+@Service
+@Timed("incx.service")
+public class FileSearchService {
+    private static final String WRITE_SCOPE = "files";
+    private static final int MIN_TRIGRAM_QUERY = 3;
+    private static final int MAX_QUERY = 255;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final FileSearchRepository fileSearchRepository;
+    private final MinioBucketsRepository minioBucketsRepository;
+    private final RecentWrites recentWrites;
+    private final double fuzzyThreshold;
+    private final int substringCandidates;
+
+    public FileSearchService(
+        FileSearchRepository fileSearchRepository,
+        MinioBucketsRepository minioBucketsRepository,
+        RecentWrites recentWrites,
+        @Value("${incx.files.search.fuzzy-threshold:0.3}") double fuzzyThreshold,
+        @Value("${incx.files.search.substring-candidates:1000}") int substringCandidates
+    ) {
+        this.fileSearchRepository = fileSearchRepository;
+        this.minioBucketsRepository = minioBucketsRepository;
+        this.recentWrites = recentWrites;
+        this.fuzzyThreshold = fuzzyThreshold;
+        this.substringCandidates = substringCandidates;
+    }
+
+    // Like listings, a search right after an upload must find the new file, so it skips the replica for a while.
+    @Transactional(readOnly = true)
+    public FileSearchPage search(String bucketName, String query, String mode, ObjectType type, Long minSize, Long maxSize,
+                                 LocalDateTime createdAfter, LocalDateTime createdBefore, String cursor, Integer limit) {
+        String q = query == null ? "" : query.strip();
+        Mode searchMode = mode(mode);
+        int minLength = searchMode == Mode.PREFIX ? 1 : MIN_TRIGRAM_QUERY;
+        if (q.length() < minLength || q.length() > MAX_QUERY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "q must be between " + minLength + " and " + MAX_QUERY + " characters for " + searchMode.name().toLowerCase(Locale.ROOT) + " search.");
+        }
+        if (minSize != null && maxSize != null && minSize > maxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minSize must not exceed maxSize.");
+        }
+        int pageSize = pageSize(limit);
+        After after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, searchMode);
+        Filter filter = new Filter(type == null ? null : type.name(), minSize, maxSize, createdAfter, createdBefore);
+
+        return DataSourceRouting.onPrimaryIf(recentWrites.isRecent(WRITE_SCOPE, bucketName), () -> {
+            MinioBucket bucket = minioBucketsRepository.findByBucketName(bucketName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Bucket not found."));
+            List<Hit> hits = fileSearchRepository.search(bucket.getId(), searchMode, q, fuzzyThreshold, substringCandidates,
+                filter, after, pageSize);
+            return toPage(hits, pageSize);
+        });
+    }
+
+    private static Mode mode(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return Mode.SUBSTRING;
+        }
+        try {
+            return Mode.valueOf(mode.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode must be one of prefix, substring or fuzzy.");
+        }
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        return limit;
+    }
+
+    // The cursor is the sort key of the last row handed out, "<key>:<id>", base64url-encoded
+    // because a prefix search's key is a file name.
+    private static FileSearchPage toPage(List<Hit> hits, int limit) {
+        List<FileSearchResult> items = hits.stream().map(Hit::result).toList();
+        if (hits.size() < limit) {
+            return new FileSearchPage(items, null);
+        }
+        After last = hits.get(hits.size() - 1).key();
+        String cursor = last.key() + ":" + last.id();
+        return new FileSearchPage(items, Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static After decodeCursor(String cursor, Mode mode) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = decoded.lastIndexOf(':');
+            String key = decoded.substring(0, split);
+            if (mode != Mode.PREFIX) {
+                Float.parseFloat(key);
+            }
+            return new After(key, Long.parseLong(decoded.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.");
+        }
+    }
+}
@@ -3,21 +3,29 @@ package com.github.thebloodyamateur.incx.service;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.github.thebloodyamateur.incx.config.DataSourceRouting;
 import com.github.thebloodyamateur.incx.dto.ContentResponse;
+import com.github.thebloodyamateur.incx.dto.FileDownload;
 import com.github.thebloodyamateur.incx.dto.GeneralResponse;
+import com.github.thebloodyamateur.incx.dto.TrashedObjectResponse;
 import com.github.thebloodyamateur.incx.persistence.model.MinioBucket;
 import com.github.thebloodyamateur.incx.persistence.model.MinioObject;
 import com.github.thebloodyamateur.incx.persistence.repository.MinioBucketsRepository;
 import com.github.thebloodyamateur.incx.persistence.repository.MinioObjectsRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.TrashRepository;
 
+import io.micrometer.core.annotation.Timed;
 import io.minio.BucketExistsArgs;
 import io.minio.GetObjectArgs;
 import io.minio.GetObjectResponse;
@@ -30,19 +38,37 @@ import lombok.extern.slf4j.Slf4j;
 
 @AllArgsConstructor
 @Service
+@Timed("incx.service")
 @Slf4j(topic = "FileServiceLogger")
 public class FileService {
+    private static final String WRITE_SCOPE = "files";
+    private static final String PROVISIONING_FAILED = "Storage for this account could not be set up. Logging in again retries it.";
+    // Compressed length is unknown up front, so the MinIO client buffers the body in parts of this
+    // size; S3's minimum keeps that buffer small, and bodies below it still go up in a single PUT.
+    private static final long COMPRESSED_PART_SIZE = 5L * 1024 * 1024;
+
     private MinioClient minioClient;
     private MinioBucketsRepository minioBucketsRepository;
     private MinioObjectsRepository minioObjectsRepository;
+    private RecentWrites recentWrites;
+    private StorageMetrics storageMetrics;
+    private DownloadTransfers downloadTransfers;
+    private RangedDownloads rangedDownloads;
+    private TrashRepository trashRepository;
+    private TrashService trashService;
+    private AccessStats accessStats;
+    private StorageTiering storageTiering;
+    private UploadCompression uploadCompression;
 
     public boolean createBucket(String bucketName) {
         try {
-            boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+            boolean found = storageMetrics.record("bucketExists",
+                () -> minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build()));
             log.info("Bucket '{}' exists: {}", bucketName, found);
             if (!found) {
                 log.info("Creating bucket '{}'", bucketName);
-                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+                storageMetrics.run("makeBucket",
+                    () -> minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build()));
             }
             return true;
         } catch (Exception e) {
@@ -61,6 +87,9 @@ public class FileService {
                 log.error("Bucket '{}' not found in database.", bucketName);
                 return ResponseEntity.status(500).body(new GeneralResponse("Bucket not found."));
             }
+            if (!bucket.isReady()) {
+                return notProvisioned(bucket);
+            }
 
             // If parentDirectory is provided, check if it exists and is a folder
             if(parentDirectory != null && !parentDirectory.isEmpty()) {
@@ -71,35 +100,45 @@ public class FileService {
                 }
             }
 
-            // Geneate random fileName if the fileName surpasses 100 characters
-            if(fileName.length() > 15) {
-                String originalName = fileName;
-                String fileExtension = "";
-                int dotIndex = originalName.lastIndexOf('.');
-                if (dotIndex > 0) {
-                    fileExtension = originalName.substring(dotIndex);
-                }
-                fileName = java.util.UUID.randomUUID().toString() + fileExtension;
-                log.info("Provided file name '{}' exceeded 100 characters. Generated new file name '{}'", originalName, fileName);
-            }
+            fileName = storedFileName(fileName);
 
             // Construct the final object path
-            String finalObjectPath = fileName;
-            if(parentDirectory != null && !parentDirectory.isEmpty()) {
-                finalObjectPath = parentDirectory + "/" + fileName;
-            }
+            String finalObjectPath = objectPath(parentDirectory, fileName);
 
             log.info("Uploading file '{}' to bucket '{}' at path '{}'", fileName, bucketName, finalObjectPath);
 
-            // Upload the file to MinIO
-            minioClient.putObject(
-                PutObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(finalObjectPath)
-                    .stream(fileData.getInputStream(), fileData.getSize(), -1)
-                    .contentType(fileData.getContentType())
-                    .build()
-            );
+            // Upload the file to MinIO, gzip-compressed if a sample of it compresses well. The encoding
+            // lives only in the database: as object metadata, OkHttp inside the MinIO client could
+            // decompress the body on the way back and break the pass-through.
+            UploadCompression.Decision compression = uploadCompression.decide(
+                fileData.getInputStream(), fileData.getContentType(), fileData.getSize());
+            long storedSize;
+            if (compression.compress()) {
+                try (CountingInputStream compressed = new CountingInputStream(GzipStreams.compress(compression.body()))) {
+                    storageMetrics.record("putObject", () -> minioClient.putObject(
+                        PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(finalObjectPath)
+                            .stream(compressed, -1, COMPRESSED_PART_SIZE)
+                            .contentType(fileData.getContentType())
+                            .build()
+                    ));
+                    storedSize = compressed.count();
+                }
+            } else {
+                try (InputStream body = compression.body()) {
+                    storageMetrics.record("putObject", () -> minioClient.putObject(
+                        PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(finalObjectPath)
+                            .stream(body, fileData.getSize(), -1)
+                            .contentType(fileData.getContentType())
+                            .build()
+                    ));
+                }
+                storedSize = fileData.getSize();
+            }
+            storageMetrics.uploaded(storedSize);
             log.info("File '{}' uploaded successfully to bucket '{}' at path '{}'.", fileName, bucketName, finalObjectPath);
 
             // Find parent MinioObject if parentDirectory is provided
@@ -113,11 +152,15 @@ public class FileService {
                 .name(fileName)
                 .minioPath(bucketName + "/" + finalObjectPath)
                 .size(fileData.getSize())
+                .contentEncoding(compression.contentEncoding())
+                .storedSize(storedSize)
                 .type(MinioObject.ObjectType.FILE)
                 .parent(parentObject)
                 .build();
 
             minioObject.setMinioBucket(bucket);
+            recentWrites.mark(WRITE_SCOPE, bucketName);
+            trashService.forgetTrashed(minioObject.getMinioPath());
             minioObjectsRepository.save(minioObject);
 
             log.info("File metadata for '{}' saved successfully in database.", fileName);
@@ -135,29 +178,18 @@ public class FileService {
             log.error("Bucket '{}' not found in database.", bucketName);
             return ResponseEntity.status(500).body(new GeneralResponse("Bucket not found."));
         }
+        if (!bucket.isReady()) {
+            return notProvisioned(bucket);
+        }
 
-        MinioObject minioObject = minioObjectsRepository.findByMinioBucketAndName(bucket, fileName).orElse(null);
-        if (minioObject == null) {
+        // Only marks the row; TrashService removes the MinIO body once the retention has passed.
+        if (trashRepository.trashFile(bucket.getId(), fileName) == 0) {
             log.error("File '{}' not found in bucket '{}'.", fileName, bucketName);
             return ResponseEntity.status(500).body(new GeneralResponse("File not found in the specified bucket."));
         }
-
-        try {
-            minioClient.removeObject(
-                io.minio.RemoveObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(fileName)
-                    .build()
-            );
-            log.info("File '{}' deleted successfully from bucket '{}'.", fileName, bucketName);
-
-            minioObjectsRepository.delete(minioObject);
-
-            return ResponseEntity.ok(new GeneralResponse("File deleted successfully."));
-        } catch (Exception e) {
-            log.error("Error deleting file '{}' from bucket '{}': {}", fileName, bucketName, e.getMessage());
-            return ResponseEntity.status(500).body(new GeneralResponse("Failed to delete file."));
-        }
+        recentWrites.mark(WRITE_SCOPE, bucketName);
+        log.info("File '{}' moved to trash in bucket '{}'.", fileName, bucketName);
+        return ResponseEntity.ok(new GeneralResponse("File deleted successfully."));
     }
 
     public ResponseEntity<GeneralResponse> createDirectory(
@@ -172,6 +204,9 @@ public class FileService {
                 log.error("Bucket '{}' not found in database.", bucketName);
                 return ResponseEntity.status(422).body(new GeneralResponse("Bucket not found."));
             }
+            if (!bucket.isReady()) {
+                return notProvisioned(bucket);
+            }
 
             log.info("Creating directory '{}' in bucket '{}'", directoryName, bucketName);
 
@@ -187,23 +222,18 @@ public class FileService {
             log.debug("Parent directory check passed for '{}'", parentDirectory);
             
             // Create the directory path
-            String finalDirectoryPath = "";
-            if(parentDirectory != null && !parentDirectory.isEmpty()) {
-                finalDirectoryPath = parentDirectory + "/" + directoryName + "/";
-            } else {
-                finalDirectoryPath = directoryName + "/";
-            }
+            String finalDirectoryPath = objectPath(parentDirectory, directoryName) + "/";
 
             log.debug("Final directory path to create: '{}'", finalDirectoryPath);
 
             // Create a zero-byte object to represent the directory
-            minioClient.putObject(
+            storageMetrics.record("putObject", () -> minioClient.putObject(
                 PutObjectArgs.builder()
                     .bucket(bucketName)
                     .object(finalDirectoryPath)
                     .stream(new ByteArrayInputStream(new byte[0]), 0, -1)
                     .build()
-            );
+            ));
             log.debug("Directory '{}' created successfully in bucket '{}'.", finalDirectoryPath, bucketName);
 
             MinioObject minioObject = MinioObject.builder()
@@ -219,6 +249,7 @@ public class FileService {
                 .build();
 
             minioObject.setMinioBucket(bucket);
+            recentWrites.mark(WRITE_SCOPE, bucketName);
             minioObjectsRepository.save(minioObject);
             return ResponseEntity.ok(new GeneralResponse("Directory created successfully."));
         } catch (Exception e) {
@@ -237,38 +268,24 @@ public class FileService {
                 log.error("Bucket '{}' not found in database.", bucketName);
                 return ResponseEntity.status(422).body(new GeneralResponse("Bucket not found."));
             }
-
-            log.info("Found bucket '{}'. Proceeding to delete directory '{}'", bucketName, directoryName);
-
-            // Get the minio object for the directory
-            MinioObject directoryObject = minioObjectsRepository.findByMinioBucketAndName(bucket, directoryName).orElse(null);
-            if (directoryObject == null || directoryObject.getType() != MinioObject.ObjectType.FOLDER) {
-                log.error("Directory '{}' not found or is not a folder in bucket '{}'.", directoryName, bucketName);
-                return ResponseEntity.status(422).body(new GeneralResponse("Directory not found or is not a folder."));
+            if (!bucket.isReady()) {
+                return notProvisioned(bucket);
             }
 
-            log.info("Found directory object for '{}'. Checking if it is empty.", directoryName);
+            log.info("Found bucket '{}'. Proceeding to delete directory '{}'", bucketName, directoryName);
 
-            // Check if the directory is empty
-           boolean isNotEmpty = minioObjectsRepository.folderExistsAndIsNotEmpty(bucket, directoryName);
-           if (isNotEmpty) {
+            // Trashes the folder only if it has no live children, in one statement.
+            if (trashRepository.trashEmptyFolder(bucket.getId(), directoryName) == 0) {
+                MinioObject directoryObject = minioObjectsRepository.findByMinioBucketAndName(bucket, directoryName).orElse(null);
+                if (directoryObject == null || directoryObject.getType() != MinioObject.ObjectType.FOLDER) {
+                    log.error("Directory '{}' not found or is not a folder in bucket '{}'.", directoryName, bucketName);
+                    return ResponseEntity.status(422).body(new GeneralResponse("Directory not found or is not a folder."));
+                }
                 log.warn("Directory '{}' is not empty. Cannot delete non-empty directories.", directoryName);
                 return ResponseEntity.status(422).body(new GeneralResponse("Directory is not empty."));
-           }
-
-            log.info("Directory '{}' is empty. Proceeding to delete.", directoryName);
-
-            // Delete the directory object from MinIO
-            minioClient.removeObject(
-                io.minio.RemoveObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(directoryObject.getMinioPath().substring(bucketName.length() + 1))
-                    .build()
-            );
-            log.info("Directory '{}' deleted successfully from bucket '{}'.", directoryName, bucketName);
-
-            // Delete the directory object from the database
-            minioObjectsRepository.delete(directoryObject);
+            }
+            recentWrites.mark(WRITE_SCOPE, bucketName);
+            log.info("Directory '{}' moved to trash in bucket '{}'.", directoryName, bucketName);
 
             return ResponseEntity.ok(new GeneralResponse("Directory "  + directoryName + " deleted successfully."));
         } catch (Exception e) {
@@ -277,16 +294,55 @@ public class FileService {
         }
     }
 
+    public List<TrashedObjectResponse> getTrash(String bucketName) {
+        MinioBucket bucket = minioBucketsRepository.findByBucketName(bucketName)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Bucket not found."));
+        return trashService.list(bucket.getId());
+    }
+
+    public ResponseEntity<GeneralResponse> restoreFromTrash(String bucketName, long id) {
+        MinioBucket bucket = minioBucketsRepository.findByBucketName(bucketName).orElse(null);
+        if (bucket == null) {
+            log.error("Bucket '{}' not found in database.", bucketName);
+            return ResponseEntity.status(422).body(new GeneralResponse("Bucket not found."));
+        }
+        return switch (trashService.restore(bucket.getId(), id)) {
+            case RESTORED -> {
+                recentWrites.mark(WRITE_SCOPE, bucketName);
+                yield ResponseEntity.ok(new GeneralResponse("Restored successfully."));
+            }
+            case NOT_FOUND -> ResponseEntity.status(404).body(new GeneralResponse("Nothing to restore; the entry is gone or has expired."));
+            case NAME_TAKEN -> ResponseEntity.status(409).body(new GeneralResponse("An object with the same name exists."));
+            case PARENT_TRASHED -> ResponseEntity.status(409).body(new GeneralResponse("Restore the parent directory first."));
+        };
+    }
+
+    // Listings right after an upload or delete must reflect it, so those skip the replica for a while.
+    @Transactional(readOnly = true)
     public List<ContentResponse> getContent(String bucketName, String path) {
+        return DataSourceRouting.onPrimaryIf(recentWrites.isRecent(WRITE_SCOPE, bucketName), () -> loadContent(bucketName, path));
+    }
+
+    private List<ContentResponse> loadContent(String bucketName, String path) {
         log.info("Fetching content for bucket '{}' and path '{}'", bucketName, path);
 
         MinioBucket bucket = minioBucketsRepository.findByBucketName(bucketName)
             .orElseThrow(() -> new RuntimeException("Bucket not found"));
 
+        // A bucket that is still being provisioned cannot contain anything yet.
+        if (!bucket.isReady()) {
+            log.info("Bucket '{}' is {}, returning empty content", bucketName, bucket.getStatus());
+            return List.of();
+        }
+
         if (path != null && !path.isEmpty()) {
             log.info("Fetching content for path '{}'", path);
             List<MinioObject> objects = minioObjectsRepository.findByMinioBucketAndParent_Name(bucket, path);
             log.info("Total objects found before removal: {}", objects.size());
+            // A listing counts as an access to the folder, not to every file in it.
+            if (!objects.isEmpty()) {
+                accessStats.record(objects.get(0).getParent().getId());
+            }
             if(!objects.isEmpty()) {
                 int randomItem = (int) (Math.random() * objects.size());
                 objects.remove(randomItem);
@@ -312,15 +368,24 @@ public class FileService {
         }
     }
 
-    public Resource downloadFile(String fileName, String bucketName, String parentDirectory) {
+    /**
+     * Admits the download and opens the object before anything is written, so a missing file or
+     * an exhausted transfer limit still turns into a proper error status. Compressed bodies are
+     * passed through as they are to clients that accept gzip and decompressed for everyone else.
+     */
+    public FileDownload downloadFile(String fileName, String bucketName, String parentDirectory, boolean acceptsGzip) {
         // Find the bucket
         MinioBucket bucket = minioBucketsRepository.findByBucketName(bucketName)
             .orElseThrow(() -> new RuntimeException("Bucket not found."));
+        if (bucket.getStatus() == MinioBucket.Status.FAILED) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, PROVISIONING_FAILED);
+        }
+        if (!bucket.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Storage for this account is not ready yet.");
+        }
 
         // Construct the final object path
-        String finalObjectPath = parentDirectory != null && !parentDirectory.isEmpty()
-            ? parentDirectory + "/" + fileName
-            : fileName;
+        String finalObjectPath = objectPath(parentDirectory, fileName);
 
         // Find the file object
         MinioObject minioObject = minioObjectsRepository.findByMinioBucketAndName(bucket, finalObjectPath)
@@ -330,24 +395,91 @@ public class FileService {
             throw new RuntimeException("The specified path is not a file.");
         }
 
-        // Download the file from MinIO
+        // The bucket name is the owner's username, so the per-user cap is keyed by it.
+        DownloadTransfers.Slot slot = downloadTransfers.acquire(bucketName);
         try {
-            GetObjectResponse response = minioClient.getObject(
-                GetObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(finalObjectPath)
-                    .build()
-            );
+            accessStats.record(minioObject.getId());
+            boolean encoded = UploadCompression.GZIP.equals(minioObject.getContentEncoding());
+            Long storedSize = encoded ? minioObject.getStoredSize() : minioObject.getSize();
+            // Content-Length comes from what MinIO reports for the stored body, never from the
+            // database, which may be stale. A body that is decompressed on the way out has no
+            // known length and is sent chunked.
+            InputStream content;
+            long storedLength = -1;
+            if (minioObject.getStorageTier() == MinioObject.StorageTier.COLD) {
+                content = storageTiering.openCold(minioObject.getId(), minioObject.getMinioPath());
+            } else {
+                content = rangedDownloads.isCandidate(storedSize != null ? storedSize : 0)
+                    ? rangedDownloads.open(bucketName, finalObjectPath)
+                    : null;
+                storedLength = RangedDownloads.length(content);
+            }
+            if (content == null) {
+                GetObjectResponse response = storageMetrics.record("getObject", () -> minioClient.getObject(
+                    GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(finalObjectPath)
+                        .build()
+                ));
+                content = response;
+                storedLength = contentLength(response);
+            }
 
-            // Convert the MinIO response to a Spring Resource
-            InputStream inputStream = response;
-            InputStreamResource resource = new InputStreamResource(inputStream);
-            return resource;
-            
+            InputStream inputStream = storageMetrics.countingDownload(content);
+            if (encoded && acceptsGzip) {
+                return new FileDownload(fileName, storedLength, UploadCompression.GZIP, downloadTransfers.stream(slot, inputStream));
+            }
+            if (encoded) {
+                inputStream = new GZIPInputStream(inputStream, 64 * 1024);
+                storedLength = -1;
+            }
+            return new FileDownload(fileName, storedLength, null, downloadTransfers.stream(slot, inputStream));
         } catch (Exception e) {
+            slot.release();
             log.error("Error downloading file '{}' from bucket '{}': {}", finalObjectPath, bucketName, e.getMessage());
             throw new RuntimeException("Failed to download file: " + e.getMessage());
         }
     }
 
-}
\ No newline at end of file
+    private static long contentLength(GetObjectResponse response) {
+        String header = response.headers().get(HttpHeaders.CONTENT_LENGTH);
+        try {
+            return header != null ? Long.parseLong(header) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Object key of {@code name} inside {@code parentDirectory}, or at the bucket root without one. */
+    static String objectPath(String parentDirectory, String name) {
+        return parentDirectory != null && !parentDirectory.isEmpty()
+            ? parentDirectory + "/" + name
+            : name;
+    }
+
+    // Geneate random fileName if the fileName surpasses 100 characters
+    static String storedFileName(String fileName) {
+        if (fileName.length() <= 15) {
+            return fileName;
+        }
+        String fileExtension = "";
+        int dotIndex = fileName.lastIndexOf('.');
+        if (dotIndex > 0) {
+            fileExtension = fileName.substring(dotIndex);
+        }
+        String generatedName = java.util.UUID.randomUUID().toString() + fileExtension;
+        log.info("Provided file name '{}' exceeded 100 characters. Generated new file name '{}'", fileName, generatedName);
+        return generatedName;
+    }
+
+    // A FAILED bucket stays that way until it is re-queued, so retrying the request is pointless.
+    private ResponseEntity<GeneralResponse> notProvisioned(MinioBucket bucket) {
+        log.warn("Bucket '{}' is {}, rejecting request", bucket.getName(), bucket.getStatus());
+        if (bucket.getStatus() == MinioBucket.Status.FAILED) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new GeneralResponse(PROVISIONING_FAILED));
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "2")
+            .body(new GeneralResponse("Storage for this account is not ready yet."));
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Turns a plain stream into a gzip-compressed one without buffering the whole body, so it can be
+ * handed to {@code putObject} with an unknown size. The compression runs on a virtual thread
+ * writing into a pipe. If it fails the pipe is left open rather than closed, so the reader gets
+ * "Pipe broken" instead of a clean, truncated end of stream. Callers must close the returned
+ * stream, which also stops the compressor if the upload is abandoned.
+ */
+final class GzipStreams {
+    private static final int PIPE_SIZE = 64 * 1024;
+    private static final ExecutorService COMPRESSORS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private GzipStreams() {
+    }
+
+    static InputStream compress(InputStream source) throws IOException {
+        PipedInputStream compressed = new PipedInputStream(PIPE_SIZE);
+        PipedOutputStream sink = new PipedOutputStream(compressed);
+        COMPRESSORS.submit(() -> {
+            try (source) {
+                GZIPOutputStream gzip = new GZIPOutputStream(sink, PIPE_SIZE);
+                source.transferTo(gzip);
+                gzip.close();
+            }
+            return null;
+        });
+        return compressed;
+    }
+}
@@ -1,22 +1,107 @@
 package com.github.thebloodyamateur.incx.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.thebloodyamateur.incx.config.DataSourceRouting;
 import com.github.thebloodyamateur.incx.persistence.model.Improvement;
 import com.github.thebloodyamateur.incx.persistence.repository.ImprovementRepository;
-import lombok.AllArgsConstructor;
 
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves the improvements catalogue from an immutable snapshot. The table only changes through
+ * migrations, so every response is serialized once per reload and requests cost a map lookup.
+ * Reloads build a complete new snapshot and swap it in, so readers never see a partial one.
+ */
 @Service
-@AllArgsConstructor
+@Slf4j(topic = "ImprovementService")
 public class ImprovementService {
 
+    /** Pre-serialized JSON array with its strong ETag. */
+    public record Payload(byte[] json, String etag) {
+    }
+
+    private record Snapshot(Payload all, Map<String, Payload> byPage, Payload empty) {
+    }
+
+    private static final String TOPIC = "improvements";
+
     private final ImprovementRepository improvementRepository;
+    private final ObjectMapper objectMapper;
+    private final InvalidationBus invalidationBus;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public ImprovementService(ImprovementRepository improvementRepository, ObjectMapper objectMapper, InvalidationBus invalidationBus) {
+        this.improvementRepository = improvementRepository;
+        this.objectMapper = objectMapper;
+        this.invalidationBus = invalidationBus;
+        // Fired by other instances and by the trigger on the improvements table (V18).
+        invalidationBus.subscribe(TOPIC, change -> reload(), this::reload);
+    }
+
+    public Payload getImprovementsByPage(String pageName) {
+        Snapshot current = current();
+        return current.byPage().getOrDefault(pageName, current.empty());
+    }
+
+    public Payload getAllImprovements() {
+        return current().all();
+    }
+
+    /** Reads the table and atomically replaces the snapshot. Returns the number of improvements. */
+    public int reload() {
+        // Reloads follow a change on the primary; a lagging replica would bring back the old rows.
+        List<Improvement> improvements = DataSourceRouting.onPrimary(() -> improvementRepository.findAll(Sort.by("id")));
+        Map<String, List<Improvement>> grouped = improvements.stream()
+            .collect(Collectors.groupingBy(Improvement::getPageName, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, Payload> byPage = new LinkedHashMap<>();
+        grouped.forEach((page, entries) -> byPage.put(page, serialize(entries)));
+        snapshot.set(new Snapshot(serialize(improvements), Map.copyOf(byPage), serialize(List.of())));
+        log.info("Loaded {} improvements for {} pages", improvements.size(), byPage.size());
+        return improvements.size();
+    }
+
+    /** Reloads this instance and tells all others to do the same. */
+    public int reloadEverywhere() {
+        int count = reload();
+        invalidationBus.publish(TOPIC, "reload");
+        return count;
+    }
 
-    public List<Improvement> getImprovementsByPage(String pageName) {
-        return improvementRepository.findByPageName(pageName);
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot.get() == null) {
+                    reload();
+                }
+                current = snapshot.get();
+            }
+        }
+        return current;
     }
 
-    public List<Improvement> getAllImprovements() {
-        return improvementRepository.findAll();
+    private Payload serialize(List<Improvement> improvements) {
+        try {
+            byte[] json = objectMapper.writeValueAsString(improvements).getBytes(StandardCharsets.UTF_8);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return new Payload(json, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not serialize improvements", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.thebloodyamateur.incx.persistence.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps in-process caches coherent across backend instances over PostgreSQL LISTEN/NOTIFY.
+ * Writers {@link #publish(String, String)} a topic and key once their transaction commits; every
+ * other instance hands the key to the handlers subscribed to that topic. Notifications sent while
+ * an instance is disconnected are lost, so after every (re)connect all resync handlers run.
+ * Payloads are {@code <origin>|<topic>|<key>}; an instance ignores its own messages.
+ */
+@Component
+@Slf4j(topic = "InvalidationBus")
+public class InvalidationBus {
+    private static final String CHANNEL = "incx_invalidation";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    private final NotificationRepository notificationRepository;
+    private final DataSourceProperties dataSourceProperties;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> resyncHandlers = new CopyOnWriteArrayList<>();
+    private final ExecutorService publisher = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public InvalidationBus(
+        NotificationRepository notificationRepository,
+        DataSourceProperties dataSourceProperties,
+        MeterRegistry meterRegistry,
+        @Value("${incx.invalidation.enabled:true}") boolean enabled
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.dataSourceProperties = dataSourceProperties;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registers a handler for keys published on the topic by other instances, and a resync that
+     * runs after every (re)connect of the listener.
+     */
+    public void subscribe(String topic, Consumer<String> onInvalidate, Runnable onResync) {
+        handlers.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(onInvalidate);
+        resyncHandlers.add(onResync);
+    }
+
+    /**
+     * Tells the other instances that the entry for the key changed. Inside a transaction the
+     * message is sent after commit, so receivers never reload the old state; a rolled back write
+     * sends nothing.
+     */
+    public void publish(String topic, String key) {
+        if (!enabled) {
+            return;
+        }
+        String payload = instanceId + '|' + topic + '|' + key;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(topic, payload);
+                }
+            });
+        } else {
+            send(topic, payload);
+        }
+    }
+
+    // Sent from a fresh thread: in afterCommit the committed connection is still bound to the caller.
+    private void send(String topic, String payload) {
+        publisher.execute(() -> {
+            try {
+                notificationRepository.notify(CHANNEL, payload);
+                counter("incx.invalidation.published", topic).increment();
+            } catch (RuntimeException e) {
+                log.warn("Could not publish invalidation {}: {}", payload, e.getMessage());
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            resync();
+            return;
+        }
+        listener = Thread.ofVirtual().name("invalidation-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        publisher.shutdown();
+    }
+
+    private void listen() {
+        Duration backoff = Duration.ofSeconds(1);
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                resync();
+                backoff = Duration.ofSeconds(1);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener disconnected, retrying in {}: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed invalidation {}", payload);
+            return;
+        }
+        if (parts[0].equals(instanceId)) {
+            return;
+        }
+        counter("incx.invalidation.received", parts[1]).increment();
+        for (Consumer<String> handler : handlers.getOrDefault(parts[1], List.of())) {
+            try {
+                handler.accept(parts[2]);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation handler for {} failed: {}", parts[1], e.getMessage());
+            }
+        }
+    }
+
+    private void resync() {
+        log.info("Resynchronizing {} local caches", resyncHandlers.size());
+        for (Runnable handler : resyncHandlers) {
+            try {
+                handler.run();
+            } catch (RuntimeException e) {
+                log.warn("Cache resync failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private Counter counter(String name, String topic) {
+        return meterRegistry.counter(name, "topic", topic);
+    }
+}
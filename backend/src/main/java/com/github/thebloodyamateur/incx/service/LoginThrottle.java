@@ -0,0 +1,246 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brute-force protection for logins, keyed separately by username and by client address. Each key
+ * has a token bucket for the attempt rate and a failure count that locks the key out for
+ * exponentially growing periods. Everything is checked before any database lookup or hashing.
+ *
+ * <p>State lives in striped, access-ordered maps of CAS-updated immutable records; each stripe
+ * has its own lock, held only for the lookup or insert. Idle keys are evicted by a periodic sweep
+ * and each stripe is capped so memory stays bounded under key-spraying. A full stripe makes room
+ * by dropping its least recently seen key that is not locked out, looking at no more than
+ * {@value #EVICTION_PROBE} keys per insert; if all of those are locked out, the new key is
+ * rejected rather than let through unthrottled.
+ */
+@Service
+@Slf4j(topic = "LoginThrottle")
+public class LoginThrottle {
+    private static final int STRIPES = 16;
+    private static final int EVICTION_PROBE = 8;
+
+    private final double burst;
+    private final double refillPerNano;
+    private final int freeFailures;
+    private final long baseLockoutNanos;
+    private final long maxLockoutNanos;
+    private final long idleNanos;
+    private final int maxKeysPerStripe;
+
+    @SuppressWarnings("unchecked")
+    private final LinkedHashMap<String, AtomicReference<KeyState>>[] stripes = new LinkedHashMap[STRIPES];
+
+    private final Counter rateRejections;
+    private final Counter lockoutRejections;
+    private final Counter lockouts;
+
+    private record KeyState(double tokens, long refilledAt, int failures, long lockedUntil, long lastSeen) {
+    }
+
+    public LoginThrottle(
+        MeterRegistry meterRegistry,
+        @Value("${incx.auth.throttle.burst:10}") double burst,
+        @Value("${incx.auth.throttle.attempts-per-minute:10}") double attemptsPerMinute,
+        @Value("${incx.auth.throttle.free-failures:5}") int freeFailures,
+        @Value("${incx.auth.throttle.base-lockout:PT1S}") Duration baseLockout,
+        @Value("${incx.auth.throttle.max-lockout:PT15M}") Duration maxLockout,
+        @Value("${incx.auth.throttle.idle-eviction:PT30M}") Duration idleEviction,
+        @Value("${incx.auth.throttle.max-keys:500000}") int maxKeys
+    ) {
+        this.burst = burst;
+        this.refillPerNano = attemptsPerMinute / Duration.ofMinutes(1).toNanos();
+        this.freeFailures = freeFailures;
+        this.baseLockoutNanos = baseLockout.toNanos();
+        this.maxLockoutNanos = maxLockout.toNanos();
+        this.idleNanos = idleEviction.toNanos();
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        this.rateRejections = meterRegistry.counter("incx.auth.throttle.rejected", "reason", "rate");
+        this.lockoutRejections = meterRegistry.counter("incx.auth.throttle.rejected", "reason", "lockout");
+        this.lockouts = meterRegistry.counter("incx.auth.throttle.lockouts");
+        Gauge.builder("incx.auth.throttle.keys", this, LoginThrottle::trackedKeys).register(meterRegistry);
+    }
+
+    /**
+     * Consumes one attempt for both keys or throws 429 with a {@code Retry-After} header. The
+     * address is charged first, so a throttled address cannot add usernames to the map.
+     */
+    public void acquire(String username, String clientAddress) {
+        long now = System.nanoTime();
+        acquireKey(addressKey(clientAddress), now);
+        acquireKey(usernameKey(username), now);
+    }
+
+    public void onFailure(String username, String clientAddress) {
+        long now = System.nanoTime();
+        recordFailure(addressKey(clientAddress), now);
+        recordFailure(usernameKey(username), now);
+    }
+
+    public void onSuccess(String username, String clientAddress) {
+        long now = System.nanoTime();
+        resetFailures(usernameKey(username), now);
+        resetFailures(addressKey(clientAddress), now);
+    }
+
+    private void acquireKey(String key, long now) {
+        AtomicReference<KeyState> ref = stateFor(key, now);
+        while (true) {
+            KeyState state = ref.get();
+            if (state.lockedUntil() - now > 0) {
+                lockoutRejections.increment();
+                throw tooManyRequests(state.lockedUntil() - now);
+            }
+            double tokens = Math.min(burst, state.tokens() + (now - state.refilledAt()) * refillPerNano);
+            if (tokens < 1) {
+                rateRejections.increment();
+                throw tooManyRequests((long) ((1 - tokens) / refillPerNano));
+            }
+            KeyState next = new KeyState(tokens - 1, now, state.failures(), state.lockedUntil(), now);
+            if (ref.compareAndSet(state, next)) {
+                return;
+            }
+        }
+    }
+
+    private void recordFailure(String key, long now) {
+        AtomicReference<KeyState> ref = stateFor(key, now);
+        KeyState updated = ref.updateAndGet(state -> {
+            int failures = state.failures() + 1;
+            long lockedUntil = state.lockedUntil();
+            if (failures > freeFailures) {
+                int exponent = Math.min(failures - freeFailures - 1, 30);
+                lockedUntil = now + Math.min(maxLockoutNanos, baseLockoutNanos << exponent);
+            }
+            return new KeyState(state.tokens(), state.refilledAt(), failures, lockedUntil, now);
+        });
+        if (updated.failures() > freeFailures) {
+            lockouts.increment();
+        }
+    }
+
+    private void resetFailures(String key, long now) {
+        LinkedHashMap<String, AtomicReference<KeyState>> stripe = stripeOf(key);
+        AtomicReference<KeyState> ref;
+        synchronized (stripe) {
+            ref = stripe.get(key);
+        }
+        if (ref != null) {
+            ref.updateAndGet(state -> new KeyState(state.tokens(), state.refilledAt(), 0, now, now));
+        }
+    }
+
+    private AtomicReference<KeyState> stateFor(String key, long now) {
+        LinkedHashMap<String, AtomicReference<KeyState>> stripe = stripeOf(key);
+        synchronized (stripe) {
+            AtomicReference<KeyState> ref = stripe.get(key);
+            if (ref != null) {
+                return ref;
+            }
+            if (stripe.size() >= maxKeysPerStripe && !makeRoom(stripe, now)) {
+                log.warn("Login throttle stripe is full of locked-out keys ({}), rejecting {}", stripe.size(), key);
+                lockoutRejections.increment();
+                throw tooManyRequests(baseLockoutNanos);
+            }
+            ref = new AtomicReference<>(new KeyState(burst, now, 0, now, now));
+            stripe.put(key, ref);
+            return ref;
+        }
+    }
+
+    // Drops the least recently seen key that is not locked out. Locked-out keys are never dropped,
+    // since that would lift their lockout; the ones passed over move to the back of the stripe so
+    // the next insert looks at other keys. Called with the stripe's lock held.
+    private boolean makeRoom(LinkedHashMap<String, AtomicReference<KeyState>> stripe, long now) {
+        List<String> lockedOut = new ArrayList<>(EVICTION_PROBE);
+        boolean removed = false;
+        Iterator<Map.Entry<String, AtomicReference<KeyState>>> eldest = stripe.entrySet().iterator();
+        while (eldest.hasNext() && lockedOut.size() < EVICTION_PROBE) {
+            Map.Entry<String, AtomicReference<KeyState>> entry = eldest.next();
+            if (entry.getValue().get().lockedUntil() - now <= 0) {
+                eldest.remove();
+                removed = true;
+                break;
+            }
+            lockedOut.add(entry.getKey());
+        }
+        // In an access-ordered map a get moves the key to the back.
+        lockedOut.forEach(stripe::get);
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${incx.auth.throttle.sweep-interval:PT1M}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (LinkedHashMap<String, AtomicReference<KeyState>> stripe : stripes) {
+            synchronized (stripe) {
+                int before = stripe.size();
+                stripe.values().removeIf(ref -> {
+                    KeyState state = ref.get();
+                    return now - state.lastSeen() > idleNanos && now - state.lockedUntil() > 0;
+                });
+                evicted += before - stripe.size();
+            }
+        }
+        log.debug("Evicted {} idle login throttle keys, {} tracked", evicted, trackedKeys());
+    }
+
+    private int trackedKeys() {
+        int total = 0;
+        for (LinkedHashMap<String, AtomicReference<KeyState>> stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size();
+            }
+        }
+        return total;
+    }
+
+    private LinkedHashMap<String, AtomicReference<KeyState>> stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+    }
+
+    private static String addressKey(String clientAddress) {
+        return "a:" + clientAddress;
+    }
+
+    private static ResponseStatusException tooManyRequests(long retryAfterNanos) {
+        long retryAfterSeconds = Math.max(1, Duration.ofNanos(retryAfterNanos).toSeconds() + 1);
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts. Try again later.") {
+            @Override
+            public HttpHeaders getHeaders() {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                return headers;
+            }
+        };
+    }
+}
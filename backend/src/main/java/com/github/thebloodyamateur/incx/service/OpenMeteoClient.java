@@ -0,0 +1,173 @@
+package com.github.thebloodyamateur.incx.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * HTTP access to the Open-Meteo forecast and geocoding APIs. Each API sits behind its own
+ * circuit breaker and every call is bounded by the latency budget, so an outage fails fast
+ * instead of tying up request threads.
+ */
+@Component
+@Slf4j(topic = "OpenMeteoClient")
+public class OpenMeteoClient {
+
+    private final HttpUrl forecastUrl;
+    private final HttpUrl geocodingUrl;
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CircuitBreaker forecastBreaker;
+    private final CircuitBreaker geocodingBreaker;
+    private final MeterRegistry meterRegistry;
+
+    static final class Coordinates {
+        final double latitude;
+        final double longitude;
+
+        Coordinates(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    public OpenMeteoClient(
+        MeterRegistry meterRegistry,
+        @Value("${incx.weather.open-meteo.forecast-url:https://api.open-meteo.com/v1/forecast}") String forecastUrl,
+        @Value("${incx.weather.open-meteo.geocoding-url:https://geocoding-api.open-meteo.com/v1/search}") String geocodingUrl,
+        @Value("${incx.weather.open-meteo.latency-budget:PT2S}") Duration latencyBudget,
+        @Value("${incx.weather.open-meteo.failure-threshold:5}") int failureThreshold,
+        @Value("${incx.weather.open-meteo.open-duration:PT30S}") Duration openDuration
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.forecastUrl = HttpUrl.get(forecastUrl);
+        this.geocodingUrl = HttpUrl.get(geocodingUrl);
+        this.httpClient = new OkHttpClient.Builder()
+                .callTimeout(latencyBudget)
+                .build();
+        this.forecastBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.geocodingBreaker = new CircuitBreaker(failureThreshold, openDuration);
+
+        new OkHttpConnectionPoolMetrics(httpClient.connectionPool(), Tags.of("client", "open-meteo")).bindTo(meterRegistry);
+        registerStateGauge("forecast", forecastBreaker);
+        registerStateGauge("geocoding", geocodingBreaker);
+    }
+
+    Coordinates geocodeCity(String cityName) {
+        HttpUrl url = geocodingUrl.newBuilder()
+                .addQueryParameter("name", cityName)
+                .addQueryParameter("count", "1")
+                .addQueryParameter("language", "de")
+                .addQueryParameter("format", "json")
+                .build();
+
+        Request request = new Request.Builder()
+                .url(url)
+                .get()
+                .build();
+
+        JsonNode root = call("geocoding", geocodingBreaker, () -> {
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new IOException("Unexpected HTTP code " + response);
+                }
+                String body = response.body().string();
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                throw new RuntimeException("Geocoding fehlgeschlagen für: " + cityName, e);
+            }
+        });
+
+        // An unknown city is a valid answer, so it is reported outside the breaker accounting.
+        JsonNode results = root.path("results");
+        if (!results.isArray() || results.isEmpty()) {
+            throw new RuntimeException("Keine Koordinaten für Ort gefunden: " + cityName);
+        }
+        JsonNode first = results.get(0);
+        double lat = first.path("latitude").asDouble();
+        double lon = first.path("longitude").asDouble();
+        return new Coordinates(lat, lon);
+    }
+
+    JsonNode fetchFromOpenMeteo(double latitude, double longitude) {
+        HttpUrl url = forecastUrl.newBuilder()
+                .addQueryParameter("latitude", String.valueOf(latitude))
+                .addQueryParameter("longitude", String.valueOf(longitude))
+                .addQueryParameter("current_weather", "true")
+                .addQueryParameter("hourly", "temperature_2m,relativehumidity_2m,precipitation,cloudcover,windspeed_10m,weathercode")
+                .addQueryParameter("timezone", "auto")
+                .build();
+
+        Request request = new Request.Builder()
+                .url(url)
+                .get()
+                .build();
+
+        return call("forecast", forecastBreaker, () -> {
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw new IOException("Unexpected HTTP code " + response);
+                }
+                if (response.body() == null) {
+                    throw new IOException("Empty response body from Open-Meteo");
+                }
+                String body = response.body().string();
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to fetch weather from Open-Meteo", e);
+            }
+        });
+    }
+
+    private <T> T call(String operation, CircuitBreaker breaker, Supplier<T> upstreamCall) {
+        if (!breaker.tryAcquire()) {
+            meterRegistry.counter("incx.upstream.rejected", "upstream", "open-meteo", "operation", operation).increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Open-Meteo " + operation + " is currently unavailable");
+        }
+
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            T result = upstreamCall.get();
+            breaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            breaker.onFailure();
+            log.warn("Open-Meteo {} call failed (circuit {}): {}", operation, breaker.state(), e.getMessage());
+            throw e;
+        } finally {
+            Timer.builder("incx.upstream.requests")
+                .tags("upstream", "open-meteo", "operation", operation, "outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private void registerStateGauge(String operation, CircuitBreaker breaker) {
+        Gauge.builder("incx.upstream.circuit.state", breaker, b -> b.state().ordinal())
+            .description("0 = closed, 1 = half-open, 2 = open")
+            .tags("upstream", "open-meteo", "operation", operation)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs BCrypt on a small pool sized to the CPU count instead of on request threads, so a burst of
+ * logins cannot take every core away from the rest of the API. When the queue is full callers
+ * get a 503 straight away rather than waiting behind the burst.
+ *
+ * <p>The work factor is calibrated at startup so one hash takes roughly the configured target time
+ * on this machine, unless {@code incx.auth.hashing.strength} pins it for the whole fleet. Stored
+ * hashes are only ever upgraded, so instances that calibrate differently do not keep rehashing
+ * each other's passwords.
+ */
+@Service
+@Timed("incx.service")
+@Slf4j(topic = "PasswordHashingService")
+public class PasswordHashingService {
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private final ThreadPoolExecutor executor;
+    private final Duration waitTimeout;
+    private final Counter rejections;
+    private final int strength;
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordHashingService(
+        MeterRegistry meterRegistry,
+        @Value("${incx.auth.hashing.threads:0}") int threads,
+        @Value("${incx.auth.hashing.queue-capacity:64}") int queueCapacity,
+        @Value("${incx.auth.hashing.wait-timeout:PT3S}") Duration waitTimeout,
+        @Value("${incx.auth.hashing.target-time:PT0.25S}") Duration targetTime,
+        @Value("${incx.auth.hashing.strength:0}") int configuredStrength
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadIds.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+        this.rejections = meterRegistry.counter("incx.auth.hashing.rejected");
+        this.waitTimeout = waitTimeout;
+        if (configuredStrength > 0) {
+            this.strength = Math.max(MIN_STRENGTH, Math.min(MAX_STRENGTH, configuredStrength));
+            log.info("BCrypt strength set to {}, {} hashing threads", strength, poolSize);
+        } else {
+            this.strength = calibrate(targetTime);
+            log.info("BCrypt strength calibrated to {} for a target of {} ms, {} hashing threads",
+                strength, targetTime.toMillis(), poolSize);
+        }
+        this.encoder = new BCryptPasswordEncoder(strength);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether the hash was produced with a lower work factor than this instance uses.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        // BCrypt hashes look like $2a$10$..., the two digits being the log2 work factor.
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent authentication requests.");
+        }
+
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentication timed out.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Each strength step doubles the cost, so one measurement at the minimum is enough.
+    private static int calibrate(Duration targetTime) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("calibration-warmup");
+        long start = System.nanoTime();
+        probe.encode("calibration-sample");
+        double elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+        int steps = (int) Math.floor(Math.log(targetTime.toNanos() / elapsedNanos) / Math.log(2));
+        return Math.max(MIN_STRENGTH, Math.min(MAX_STRENGTH, MIN_STRENGTH + steps));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,253 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import io.minio.StatObjectArgs;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens large objects as several concurrent ranged GETs instead of one stream, so a single
+ * download is not capped by one connection to MinIO. Parts are fetched on virtual threads and
+ * handed out strictly in order; at most {@code parallelism} parts are in flight or buffered next
+ * to the one being read, and parts are sized so those {@code parallelism + 1} parts fit in
+ * {@code max-buffer}. Parallelism and part size grow with
+ * the object size, and the number of ranged downloads is capped globally. Objects below the
+ * threshold, or any object once the cap is reached, use the plain single stream.
+ */
+@Component
+@Slf4j(topic = "RangedDownloads")
+public class RangedDownloads {
+    private static final int PART_ATTEMPTS = 2;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final MinioClient minioClient;
+    private final StorageMetrics storageMetrics;
+    private final long threshold;
+    private final long minPartSize;
+    private final long maxBuffer;
+    private final int maxParallelism;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter rangedDownloads;
+    private final Counter partRetries;
+
+    public RangedDownloads(
+        MinioClient minioClient,
+        StorageMetrics storageMetrics,
+        MeterRegistry meterRegistry,
+        @Value("${incx.files.download.ranged.threshold:64MB}") DataSize threshold,
+        @Value("${incx.files.download.ranged.min-part-size:8MB}") DataSize minPartSize,
+        @Value("${incx.files.download.ranged.max-buffer:32MB}") DataSize maxBuffer,
+        @Value("${incx.files.download.ranged.max-parallelism:8}") int maxParallelism,
+        @Value("${incx.files.download.ranged.max-concurrent:8}") int maxConcurrent
+    ) {
+        this.minioClient = minioClient;
+        this.storageMetrics = storageMetrics;
+        this.threshold = threshold.toBytes();
+        this.minPartSize = minPartSize.toBytes();
+        this.maxBuffer = Math.max(maxBuffer.toBytes(), 3 * this.minPartSize);
+        this.maxParallelism = Math.max(2, maxParallelism);
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.rangedDownloads = Counter.builder("incx.downloads.ranged").register(meterRegistry);
+        this.partRetries = Counter.builder("incx.downloads.ranged.part.retries").register(meterRegistry);
+        Gauge.builder("incx.downloads.ranged.active", permits, p -> this.maxConcurrent - p.availablePermits())
+            .description("Downloads currently fetched with parallel ranged GETs")
+            .register(meterRegistry);
+    }
+
+    public boolean isCandidate(long size) {
+        return size >= threshold;
+    }
+
+    /**
+     * Returns a stream over the whole object backed by parallel ranged GETs, or null if the object
+     * turned out to be small or all ranged slots are taken; the caller then opens it normally.
+     */
+    public InputStream open(String bucket, String object) throws Exception {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        try {
+            // The database size may be stale; ranges have to match what is actually stored.
+            long size = storageMetrics.record("statObject", () -> minioClient.statObject(
+                StatObjectArgs.builder().bucket(bucket).object(object).build())).size();
+            if (size < threshold) {
+                permits.release();
+                return null;
+            }
+            int parallelism = parallelism(size);
+            long partSize = partSize(size, parallelism);
+            log.debug("Fetching {}/{} ({} bytes) as {}-byte parts, {} at a time", bucket, object, size, partSize, parallelism);
+            rangedDownloads.increment();
+            return new ParallelRangeInputStream(bucket, object, size, partSize, parallelism);
+        } catch (Exception e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Length of a stream returned by {@link #open}, taken from the stat; -1 for any other stream. */
+    public static long length(InputStream stream) {
+        return stream instanceof RangedDownloads.ParallelRangeInputStream ranged ? ranged.size : -1;
+    }
+
+    int parallelism(long size) {
+        // One more part than the window is held: the one being read.
+        long byBudget = maxBuffer / minPartSize - 1;
+        long bySize = size / (minPartSize * 4);
+        return (int) Math.max(2, Math.min(Math.min(maxParallelism, byBudget), bySize));
+    }
+
+    long partSize(long size, int parallelism) {
+        long target = size / (parallelism * 4L);
+        return Math.max(minPartSize, Math.min(maxBuffer / (parallelism + 1), target));
+    }
+
+    private byte[] fetchPart(String bucket, String object, long offset, long length) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return storageMetrics.record("getObjectRange", () -> {
+                    try (InputStream in = minioClient.getObject(GetObjectArgs.builder()
+                            .bucket(bucket).object(object).offset(offset).length(length).build())) {
+                        byte[] part = in.readNBytes((int) length);
+                        if (part.length != length) {
+                            throw new IOException("Short ranged read at offset " + offset);
+                        }
+                        return part;
+                    }
+                });
+            } catch (InterruptedException | InterruptedIOException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= PART_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                partRetries.increment();
+            }
+        }
+    }
+
+    /**
+     * Reads happen on one thread, but {@link #close()} may come from another (the stalled-download
+     * sweep), so the queue of pending parts is concurrent and closing cancels whatever is queued.
+     */
+    private final class ParallelRangeInputStream extends InputStream {
+        private final String bucket;
+        private final String object;
+        private final long size;
+        private final long partSize;
+        private final int window;
+        private final ConcurrentLinkedDeque<Future<byte[]>> pending = new ConcurrentLinkedDeque<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private long nextOffset;
+        private byte[] current = EMPTY;
+        private int position;
+
+        ParallelRangeInputStream(String bucket, String object, long size, long partSize, int window) {
+            this.bucket = bucket;
+            this.object = object;
+            this.size = size;
+            this.partSize = partSize;
+            this.window = window;
+            fill();
+        }
+
+        private void fill() {
+            while (!closed.get() && pending.size() < window && nextOffset < size) {
+                long offset = nextOffset;
+                long length = Math.min(partSize, size - offset);
+                Future<byte[]> part = fetchExecutor.submit(() -> fetchPart(bucket, object, offset, length));
+                pending.add(part);
+                nextOffset += length;
+                if (closed.get()) {
+                    part.cancel(true);
+                }
+            }
+        }
+
+        private boolean advance() throws IOException {
+            if (closed.get()) {
+                throw new IOException("Stream closed");
+            }
+            Future<byte[]> next = pending.poll();
+            if (next == null) {
+                return false;
+            }
+            // Drop the consumed part before waiting; while it is read the window refills behind it.
+            current = EMPTY;
+            try {
+                current = next.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for part");
+            } catch (ExecutionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw cause instanceof IOException io ? io : new IOException("Ranged fetch failed", cause);
+            }
+            position = 0;
+            fill();
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (position >= current.length) {
+                if (!advance()) {
+                    return -1;
+                }
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (position >= current.length) {
+                if (!advance()) {
+                    return -1;
+                }
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            Future<byte[]> future;
+            while ((future = pending.poll()) != null) {
+                future.cancel(true);
+            }
+            current = EMPTY;
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers which sessions or buckets wrote recently, so their follow-up reads can be kept on the
+ * primary instead of a replica that may not have replayed the write yet. The window only needs to
+ * cover the replica lag budget.
+ */
+@Component
+public class RecentWrites {
+    private final Cache<String, Boolean> writers;
+
+    public RecentWrites(
+        @Value("${incx.datasource.replica.read-your-writes-window:PT10S}") Duration window,
+        @Value("${incx.datasource.replica.read-your-writes-max-keys:100000}") long maxKeys
+    ) {
+        this.writers = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterWrite(window)
+            .build();
+    }
+
+    public void mark(String scope, String key) {
+        writers.put(scope + ':' + key, Boolean.TRUE);
+    }
+
+    public boolean isRecent(String scope, String key) {
+        return writers.getIfPresent(scope + ':' + key) != null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timings and byte counts for MinIO calls. Shares {@code incx.upstream.requests} with the
+ * Open-Meteo client, so all outbound dependencies show up in one histogram family. Operations
+ * are a fixed set of MinIO method names; bucket and object names never become tags.
+ */
+@Component
+public class StorageMetrics {
+    @FunctionalInterface
+    public interface StorageCall<T> {
+        T call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface StorageAction {
+        void run() throws Exception;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Counter uploadedBytes;
+    private final Counter downloadedBytes;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StorageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.uploadedBytes = Counter.builder("incx.storage.bytes")
+            .baseUnit("bytes")
+            .tag("direction", "upload")
+            .register(meterRegistry);
+        this.downloadedBytes = Counter.builder("incx.storage.bytes")
+            .baseUnit("bytes")
+            .tag("direction", "download")
+            .register(meterRegistry);
+    }
+
+    public <T> T record(String operation, StorageCall<T> call) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return call.call();
+        } catch (Exception e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void run(String operation, StorageAction action) throws Exception {
+        record(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void uploaded(long bytes) {
+        uploadedBytes.increment(bytes);
+    }
+
+    /** Counts bytes as the client actually reads them, so aborted downloads are not overcounted. */
+    public InputStream countingDownload(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    downloadedBytes.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    downloadedBytes.increment(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + '|' + outcome, key -> Timer.builder("incx.upstream.requests")
+            .tags("upstream", "minio", "operation", operation, "outcome", outcome)
+            .register(meterRegistry));
+    }
+}
@@ -0,0 +1,288 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.thebloodyamateur.incx.persistence.model.MinioObject.StorageTier;
+import com.github.thebloodyamateur.incx.persistence.repository.AccessStatsRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.AccessStatsRepository.TieringCandidate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.BucketExistsArgs;
+import io.minio.GetObjectArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves files nobody has downloaded for {@code idle-after} into a single gzip-compressed cold
+ * bucket and brings them back on first access. A cold file is served straight from the cold copy
+ * while the promotion runs in the background, so the download that triggers it is not delayed.
+ *
+ * <p>The cold copy is keyed by row id as well as {@code minio_path}, so it belongs to one row
+ * alone. It is written once and kept until TrashService purges the row: promotion leaves it in
+ * place for downloads still reading it, and a later demotion reuses it.
+ *
+ * <p>The hot key, on the other hand, is shared with any re-upload under the same name, and such
+ * an upload writes its body before its row exists. Demotion therefore flips {@code storage_tier}
+ * only while no other live row has the key, and removes the hot body only if its ETag is still
+ * the one that was copied. Promotion only writes the hot key while it is empty.
+ */
+@Service
+@Slf4j(topic = "StorageTiering")
+public class StorageTiering {
+    private static final long PART_SIZE = 16L * 1024 * 1024;
+
+    private final AccessStatsRepository accessStatsRepository;
+    private final MinioClient minioClient;
+    private final StorageMetrics storageMetrics;
+    private final boolean enabled;
+    private final String coldBucket;
+    private final Duration idleAfter;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lease;
+    private final ExecutorService promotionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    // Demotion copies whole files, so it runs off the shared scheduler thread, one run at a time.
+    private final ExecutorService demotionExecutor =
+        Executors.newSingleThreadExecutor(Thread.ofVirtual().name("storage-tiering-demotion").factory());
+    private final AtomicBoolean demoting = new AtomicBoolean();
+    private final Set<Long> promoting = ConcurrentHashMap.newKeySet();
+    private final Counter demoted;
+    private final Counter promoted;
+    private final Counter failures;
+    private volatile boolean coldBucketReady;
+
+    public StorageTiering(
+        AccessStatsRepository accessStatsRepository,
+        MinioClient minioClient,
+        StorageMetrics storageMetrics,
+        MeterRegistry meterRegistry,
+        @Value("${incx.files.tiering.enabled:true}") boolean enabled,
+        @Value("${incx.files.tiering.cold-bucket:incx-cold}") String coldBucket,
+        @Value("${incx.files.tiering.idle-after:P30D}") Duration idleAfter,
+        @Value("${incx.files.tiering.batch-size:100}") int batchSize,
+        @Value("${incx.files.tiering.max-batches-per-run:5}") int maxBatchesPerRun,
+        @Value("${incx.files.tiering.lease:PT30M}") Duration lease
+    ) {
+        this.accessStatsRepository = accessStatsRepository;
+        this.minioClient = minioClient;
+        this.storageMetrics = storageMetrics;
+        this.enabled = enabled;
+        this.coldBucket = coldBucket;
+        this.idleAfter = idleAfter;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lease = lease;
+        this.demoted = Counter.builder("incx.files.tiering.moves").tag("direction", "cold").register(meterRegistry);
+        this.promoted = Counter.builder("incx.files.tiering.moves").tag("direction", "hot").register(meterRegistry);
+        this.failures = Counter.builder("incx.files.tiering.failures").register(meterRegistry);
+    }
+
+    /** Bucket holding the cold copy of {@code minioPath}. */
+    public String coldBucket() {
+        return coldBucket;
+    }
+
+    /** Key of the cold copy of row {@code id} inside {@link #coldBucket()}. */
+    public static String coldKey(long id, String minioPath) {
+        return minioPath + "." + id + ".gz";
+    }
+
+    /**
+     * Opens the decompressed cold copy of a COLD object and schedules its promotion back to the
+     * hot bucket.
+     */
+    public InputStream openCold(long id, String minioPath) throws Exception {
+        InputStream compressed = storageMetrics.record("getObject", () -> minioClient.getObject(
+            GetObjectArgs.builder().bucket(coldBucket).object(coldKey(id, minioPath)).build()));
+        promoteLater(id, minioPath);
+        return new GZIPInputStream(compressed, 64 * 1024);
+    }
+
+    /**
+     * Hands one demotion run to the tiering executor unless the previous one is still going. A run
+     * moves at most {@code max-batches-per-run} batches; a backlog, such as every old file on the
+     * first deploy, is worked off over several intervals.
+     */
+    @Scheduled(fixedDelayString = "${incx.files.tiering.interval:PT1H}", initialDelayString = "${incx.files.tiering.initial-delay:PT5M}")
+    public void demoteIdle() {
+        if (!enabled || !demoting.compareAndSet(false, true)) {
+            return;
+        }
+        demotionExecutor.execute(() -> {
+            try {
+                demoteBatches();
+            } catch (RuntimeException e) {
+                log.warn("Cold tier run failed: {}", e.getMessage());
+            } finally {
+                demoting.set(false);
+            }
+        });
+    }
+
+    private void demoteBatches() {
+        int moved = 0;
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            List<TieringCandidate> batch = accessStatsRepository.claimIdle(idleAfter, batchSize, lease);
+            for (TieringCandidate candidate : batch) {
+                if (demote(candidate)) {
+                    moved++;
+                }
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} idle objects to the cold tier", moved);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        demotionExecutor.shutdownNow();
+    }
+
+    private boolean demote(TieringCandidate candidate) {
+        String[] location = split(candidate.minioPath());
+        try {
+            ensureColdBucket();
+            if (accessStatsRepository.isKeyShared(candidate.id(), candidate.minioPath())) {
+                accessStatsRepository.releaseClaim(candidate.id());
+                return false;
+            }
+            String etag = etag(location[0], location[1]);
+            if (etag == null) {
+                accessStatsRepository.releaseClaim(candidate.id());
+                return false;
+            }
+            if (!candidate.hasColdCopy()) {
+                try (InputStream hot = storageMetrics.record("getObject", () -> minioClient.getObject(
+                        GetObjectArgs.builder().bucket(location[0]).object(location[1]).matchETag(etag).build()));
+                     InputStream compressed = GzipStreams.compress(hot)) {
+                    storageMetrics.record("putObject", () -> minioClient.putObject(PutObjectArgs.builder()
+                        .bucket(coldBucket).object(coldKey(candidate.id(), candidate.minioPath()))
+                        .stream(compressed, -1, PART_SIZE)
+                        .contentType("application/gzip")
+                        .build()));
+                }
+                accessStatsRepository.markColdCopy(candidate.id());
+            }
+            if (!accessStatsRepository.moveToColdIfSole(candidate.id())) {
+                accessStatsRepository.releaseClaim(candidate.id());
+                return false;
+            }
+            // A re-upload that has written its body but not yet its row shows up as a new ETag;
+            // that body is not ours to remove, and this row is served from its cold copy anyway.
+            if (etag.equals(etag(location[0], location[1]))) {
+                removeQuietly(location[0], location[1]);
+            }
+            demoted.increment();
+            return true;
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Could not move '{}' to the cold tier: {}", candidate.minioPath(), e.getMessage());
+            accessStatsRepository.releaseClaim(candidate.id());
+            return false;
+        }
+    }
+
+    private void promoteLater(long id, String minioPath) {
+        if (!promoting.add(id)) {
+            return;
+        }
+        promotionExecutor.submit(() -> {
+            try {
+                promote(id, minioPath);
+            } finally {
+                promoting.remove(id);
+            }
+        });
+    }
+
+    private void promote(long id, String minioPath) {
+        String[] location = split(minioPath);
+        try {
+            // Another upload owns the hot key now; this row stays readable from its cold copy.
+            if (accessStatsRepository.isKeyShared(id, minioPath) || etag(location[0], location[1]) != null) {
+                return;
+            }
+            try (InputStream compressed = storageMetrics.record("getObject", () -> minioClient.getObject(
+                    GetObjectArgs.builder().bucket(coldBucket).object(coldKey(id, minioPath)).build()));
+                 InputStream plain = new GZIPInputStream(compressed, 64 * 1024)) {
+                // Servers that support it refuse the write if an upload got there in the meantime.
+                storageMetrics.record("putObject", () -> minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(location[0]).object(location[1])
+                    .headers(Map.of("If-None-Match", "*"))
+                    .stream(plain, -1, PART_SIZE)
+                    .build()));
+            }
+            if (accessStatsRepository.moveTier(id, StorageTier.COLD, StorageTier.HOT)) {
+                promoted.increment();
+            }
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Could not promote '{}' back to the hot tier: {}", minioPath, e.getMessage());
+        }
+    }
+
+    /** ETag of the object, or null if there is none. */
+    private String etag(String bucket, String key) throws Exception {
+        try {
+            return storageMetrics.record("statObject", () -> minioClient.statObject(
+                StatObjectArgs.builder().bucket(bucket).object(key).build())).etag();
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private void ensureColdBucket() throws Exception {
+        if (coldBucketReady) {
+            return;
+        }
+        boolean exists = storageMetrics.record("bucketExists",
+            () -> minioClient.bucketExists(BucketExistsArgs.builder().bucket(coldBucket).build()));
+        if (!exists) {
+            log.info("Creating cold tier bucket '{}'", coldBucket);
+            storageMetrics.run("makeBucket", () -> minioClient.makeBucket(MakeBucketArgs.builder().bucket(coldBucket).build()));
+        }
+        coldBucketReady = true;
+    }
+
+    private void removeQuietly(String bucket, String key) {
+        try {
+            storageMetrics.run("removeObject", () -> minioClient.removeObject(
+                RemoveObjectArgs.builder().bucket(bucket).object(key).build()));
+        } catch (Exception e) {
+            log.warn("Could not remove '{}/{}' after a tier move: {}", bucket, key, e.getMessage());
+        }
+    }
+
+    /** {@code minio_path} is "bucket/key". */
+    private static String[] split(String minioPath) {
+        int slash = minioPath.indexOf('/');
+        return new String[] { minioPath.substring(0, slash), minioPath.substring(slash + 1) };
+    }
+}
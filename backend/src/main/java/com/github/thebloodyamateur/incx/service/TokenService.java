@@ -0,0 +1,200 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.thebloodyamateur.incx.persistence.model.RevokedToken;
+import com.github.thebloodyamateur.incx.persistence.repository.RevokedTokenRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed tokens of the form {@code base64url(claims).base64url(mac)}.
+ * Verification is pure CPU work: the signature, the expiry and an in-memory denylist, which is
+ * refreshed from {@code revoked_tokens} in the background.
+ */
+@Service
+@Slf4j(topic = "TokenService")
+public class TokenService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public enum TokenType {
+        ACCESS("a"), REFRESH("r");
+
+        private final String code;
+
+        TokenType(String code) {
+            this.code = code;
+        }
+
+        static TokenType fromCode(String code) {
+            for (TokenType type : values()) {
+                if (type.code.equals(code)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown token type " + code);
+        }
+    }
+
+    public record TokenClaims(TokenType type, long userId, String bucketName, Instant expiresAt, String tokenId) {
+    }
+
+    public record IssuedTokens(String accessToken, Instant accessTokenExpiresAt, String refreshToken) {
+    }
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final ThreadLocal<Mac> mac;
+
+    private volatile Set<String> revokedTokenIds = ConcurrentHashMap.newKeySet();
+    // Ids revoked on this instance since the running refresh started, which its read may have missed.
+    private volatile Set<String> revokedSinceRefresh = ConcurrentHashMap.newKeySet();
+
+    public TokenService(
+        RevokedTokenRepository revokedTokenRepository,
+        @Value("${incx.auth.token.secret:}") String secret,
+        @Value("${incx.auth.token.access-ttl:PT15M}") Duration accessTokenTtl,
+        @Value("${incx.auth.token.refresh-ttl:P7D}") Duration refreshTokenTtl
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            log.warn("No incx.auth.token.secret configured, using a random key. Tokens will not survive a restart or work across instances.");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    public IssuedTokens issue(long userId, String bucketName) {
+        Instant now = Instant.now();
+        Instant accessExpiresAt = now.plus(accessTokenTtl);
+        String accessToken = sign(TokenType.ACCESS, userId, bucketName, accessExpiresAt);
+        String refreshToken = sign(TokenType.REFRESH, userId, bucketName, now.plus(refreshTokenTtl));
+        return new IssuedTokens(accessToken, accessExpiresAt, refreshToken);
+    }
+
+    /**
+     * Returns the claims of a valid, unexpired and unrevoked token of the expected type, or
+     * {@code null} for anything else.
+     */
+    public TokenClaims verify(String token, TokenType expectedType) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        try {
+            byte[] expected = mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            byte[] actual = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+
+            // type|userId|expiresAtEpochSecond|tokenId|bucketName
+            String[] parts = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", 5);
+            if (parts.length != 5) {
+                return null;
+            }
+            TokenClaims claims = new TokenClaims(
+                TokenType.fromCode(parts[0]),
+                Long.parseLong(parts[1]),
+                parts[4],
+                Instant.ofEpochSecond(Long.parseLong(parts[2])),
+                parts[3]
+            );
+            if (claims.type() != expectedType || !claims.expiresAt().isAfter(Instant.now())
+                    || revokedTokenIds.contains(claims.tokenId())) {
+                return null;
+            }
+            return claims;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public void revoke(TokenClaims claims) {
+        revokedTokenRepository.save(RevokedToken.builder()
+            .tokenId(claims.tokenId())
+            .expiresAt(LocalDateTime.ofInstant(claims.expiresAt(), ZoneId.systemDefault()))
+            .build());
+        remember(claims.tokenId());
+    }
+
+    /**
+     * Revokes the token and reports whether this call was the one that did it. Used for refresh
+     * tokens, where two concurrent redemptions of the same token must not both succeed.
+     */
+    public boolean revokeOnce(TokenClaims claims) {
+        int inserted = revokedTokenRepository.insertIfAbsent(claims.tokenId(),
+            LocalDateTime.ofInstant(claims.expiresAt(), ZoneId.systemDefault()));
+        remember(claims.tokenId());
+        return inserted == 1;
+    }
+
+    private void remember(String tokenId) {
+        revokedSinceRefresh.add(tokenId);
+        revokedTokenIds.add(tokenId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${incx.auth.token.denylist-refresh:PT30S}", initialDelayString = "${incx.auth.token.denylist-refresh:PT30S}")
+    public synchronized void refreshDenylist() {
+        Set<String> sinceStart = ConcurrentHashMap.newKeySet();
+        revokedSinceRefresh = sinceStart;
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        Set<String> refreshed = ConcurrentHashMap.newKeySet();
+        refreshed.addAll(revokedTokenRepository.findActiveTokenIds(now));
+        // A revoke racing the swap may still have added to the old set, but it went into
+        // sinceStart first, so merging again after the swap catches it.
+        refreshed.addAll(sinceStart);
+        revokedTokenIds = refreshed;
+        refreshed.addAll(sinceStart);
+        log.debug("Token denylist refreshed: {} active entries, {} expired entries purged", refreshed.size(), purged);
+    }
+
+    private String sign(TokenType type, long userId, String bucketName, Instant expiresAt) {
+        String claims = type.code + "|" + userId + "|" + expiresAt.getEpochSecond() + "|" + UUID.randomUUID() + "|" + bucketName;
+        String payload = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        return payload + "." + ENCODER.encodeToString(signature);
+    }
+}
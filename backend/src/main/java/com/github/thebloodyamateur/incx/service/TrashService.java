@@ -0,0 +1,165 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.thebloodyamateur.incx.dto.TrashedObjectResponse;
+import com.github.thebloodyamateur.incx.persistence.repository.TrashRepository;
+import com.github.thebloodyamateur.incx.persistence.repository.TrashRepository.ExpiredObject;
+import com.github.thebloodyamateur.incx.persistence.repository.TrashRepository.RestoreResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trash listing and restore, plus the background collector that empties it. Each collector run
+ * claims at most {@code max-batches-per-run} batches of expired rows, deletes their MinIO bodies
+ * with one {@code removeObjects} request per bucket and then drops the rows. Bodies that fail to
+ * delete keep their row and are retried once the claim lease runs out.
+ */
+@Service
+@Slf4j(topic = "TrashService")
+public class TrashService {
+    private final TrashRepository trashRepository;
+    private final MinioClient minioClient;
+    private final StorageMetrics storageMetrics;
+    private final StorageTiering storageTiering;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lease;
+    private final Counter purgedObjects;
+    private final Counter purgeFailures;
+
+    public TrashService(
+        TrashRepository trashRepository,
+        MinioClient minioClient,
+        StorageMetrics storageMetrics,
+        StorageTiering storageTiering,
+        MeterRegistry meterRegistry,
+        @Value("${incx.files.trash.retention:P7D}") Duration retention,
+        @Value("${incx.files.trash.purge-batch-size:500}") int batchSize,
+        @Value("${incx.files.trash.max-batches-per-run:10}") int maxBatchesPerRun,
+        @Value("${incx.files.trash.purge-lease:PT5M}") Duration lease
+    ) {
+        this.trashRepository = trashRepository;
+        this.minioClient = minioClient;
+        this.storageMetrics = storageMetrics;
+        this.storageTiering = storageTiering;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lease = lease;
+        this.purgedObjects = Counter.builder("incx.files.trash.purged").register(meterRegistry);
+        this.purgeFailures = Counter.builder("incx.files.trash.purge.failures").register(meterRegistry);
+    }
+
+    public List<TrashedObjectResponse> list(long bucketId) {
+        return trashRepository.findTrashed(bucketId, retention).stream()
+            .map(o -> new TrashedObjectResponse(o.id(), o.name(), o.type(), o.size(), o.trashedAt(), o.trashedAt().plus(retention)))
+            .toList();
+    }
+
+    public RestoreResult restore(long bucketId, long id) {
+        return trashRepository.restore(bucketId, id, retention);
+    }
+
+    /**
+     * Drops trashed rows that a new upload to {@code minioPath} has made unrestorable. Rows with a
+     * cold copy lose the copy first; any whose copy cannot be removed now are left to the
+     * collector.
+     */
+    public void forgetTrashed(String minioPath) {
+        trashRepository.forgetTrashed(minioPath);
+        List<Long> withColdCopy = trashRepository.findTrashedWithColdCopy(minioPath);
+        if (withColdCopy.isEmpty()) {
+            return;
+        }
+        Map<String, Long> idsByKey = new HashMap<>();
+        withColdCopy.forEach(id -> idsByKey.put(StorageTiering.coldKey(id, minioPath), id));
+        Set<Long> failed = removeBodies(storageTiering.coldBucket(), idsByKey);
+        List<Long> removed = withColdCopy.stream().filter(id -> !failed.contains(id)).toList();
+        if (!removed.isEmpty()) {
+            trashRepository.purge(removed);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${incx.files.trash.purge-interval:PT1M}")
+    public void purgeExpired() {
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            List<ExpiredObject> batch = trashRepository.claimExpired(retention, batchSize, lease);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            // A cold copy belongs to its row alone and always goes; the hot body only if no live
+            // row still points at it. A row is dropped once all of its bodies are gone.
+            Map<String, Map<String, Long>> bodiesByBucket = new HashMap<>();
+            for (ExpiredObject object : batch) {
+                if (object.hasColdCopy()) {
+                    bodiesByBucket
+                        .computeIfAbsent(storageTiering.coldBucket(), bucket -> new HashMap<>())
+                        .put(StorageTiering.coldKey(object.id(), object.minioPath()), object.id());
+                }
+                int slash = object.minioPath().indexOf('/');
+                if (!object.cold() && !object.bodyInUse() && slash >= 0) {
+                    bodiesByBucket
+                        .computeIfAbsent(object.minioPath().substring(0, slash), bucket -> new HashMap<>())
+                        .put(object.minioPath().substring(slash + 1), object.id());
+                }
+            }
+            Set<Long> failed = new HashSet<>();
+            bodiesByBucket.forEach((bucket, keys) -> failed.addAll(removeBodies(bucket, keys)));
+            List<Long> purged = batch.stream().map(ExpiredObject::id).filter(id -> !failed.contains(id)).toList();
+
+            if (!purged.isEmpty()) {
+                trashRepository.purge(purged);
+                purgedObjects.increment(purged.size());
+            }
+            log.info("Purged {} of {} expired trash entries", purged.size(), batch.size());
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the row ids whose body could not be removed; S3 reports already-missing keys as
+     * deleted.
+     */
+    private Set<Long> removeBodies(String bucket, Map<String, Long> idsByKey) {
+        List<DeleteObject> objects = idsByKey.keySet().stream().map(DeleteObject::new).toList();
+        Set<Long> failed = new HashSet<>();
+        try {
+            storageMetrics.run("removeObjects", () -> {
+                // The result is lazy; the request is only sent while iterating it.
+                for (Result<DeleteError> result : minioClient.removeObjects(
+                        RemoveObjectsArgs.builder().bucket(bucket).objects(objects).build())) {
+                    DeleteError error = result.get();
+                    failed.add(idsByKey.get(error.objectName()));
+                    log.warn("Could not purge '{}' from bucket '{}': {}", error.objectName(), bucket, error.message());
+                }
+            });
+        } catch (Exception e) {
+            log.error("Purging {} objects from bucket '{}' failed: {}", objects.size(), bucket, e.getMessage());
+            purgeFailures.increment(idsByKey.size());
+            return new HashSet<>(idsByKey.values());
+        }
+        purgeFailures.increment(failed.size());
+        return failed;
+    }
+}
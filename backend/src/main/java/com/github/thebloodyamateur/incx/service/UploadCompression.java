@@ -0,0 +1,120 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decides per upload whether storing the body gzip-compressed is worth it. Media and archive
+ * types are skipped outright; everything else is judged by deflating the first
+ * {@code sample-size} bytes at the fastest level and requiring at least {@code min-savings}.
+ * The sample is read once and stitched back in front of the rest of the stream.
+ */
+@Component
+public class UploadCompression {
+    public static final String GZIP = "gzip";
+
+    private static final List<String> INCOMPRESSIBLE_PREFIXES = List.of("image/", "video/", "audio/", "font/woff");
+    private static final List<String> INCOMPRESSIBLE_TYPES = List.of(
+        "application/zip", "application/gzip", "application/x-gzip", "application/zstd",
+        "application/x-7z-compressed", "application/x-rar-compressed", "application/x-xz",
+        "application/x-bzip2", "application/vnd.rar");
+
+    /** The stream to store and, if it should be compressed, the encoding to apply. */
+    public record Decision(InputStream body, String contentEncoding) {
+        public boolean compress() {
+            return contentEncoding != null;
+        }
+    }
+
+    private final boolean enabled;
+    private final long minSize;
+    private final int sampleSize;
+    private final double maxRatio;
+    private final Counter compressed;
+    private final Counter skipped;
+
+    public UploadCompression(
+        MeterRegistry meterRegistry,
+        @Value("${incx.files.compression.enabled:true}") boolean enabled,
+        @Value("${incx.files.compression.min-size:4KB}") DataSize minSize,
+        @Value("${incx.files.compression.sample-size:16KB}") DataSize sampleSize,
+        @Value("${incx.files.compression.min-savings:0.1}") double minSavings
+    ) {
+        this.enabled = enabled;
+        this.minSize = minSize.toBytes();
+        this.sampleSize = (int) sampleSize.toBytes();
+        this.maxRatio = 1.0 - minSavings;
+        this.compressed = Counter.builder("incx.files.compression.decisions").tag("result", "compressed").register(meterRegistry);
+        this.skipped = Counter.builder("incx.files.compression.decisions").tag("result", "raw").register(meterRegistry);
+    }
+
+    public Decision decide(InputStream body, String contentType, long size) throws IOException {
+        if (!enabled || size < minSize || isIncompressibleType(contentType)) {
+            skipped.increment();
+            return new Decision(body, null);
+        }
+        byte[] sample = body.readNBytes(sampleSize);
+        InputStream restored = new SequenceInputStream(new ByteArrayInputStream(sample), body);
+        if (compressedRatio(sample) > maxRatio) {
+            skipped.increment();
+            return new Decision(restored, null);
+        }
+        compressed.increment();
+        return new Decision(restored, GZIP);
+    }
+
+    private static boolean isIncompressibleType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).trim();
+        }
+        if (type.equals("image/svg+xml")) {
+            return false;
+        }
+        for (String prefix : INCOMPRESSIBLE_PREFIXES) {
+            if (type.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return INCOMPRESSIBLE_TYPES.contains(type);
+    }
+
+    private static double compressedRatio(byte[] sample) {
+        if (sample.length == 0) {
+            return 1.0;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] out = new byte[sample.length];
+            int total = 0;
+            while (!deflater.finished()) {
+                int written = deflater.deflate(out, 0, out.length);
+                total += written;
+                if (total >= sample.length) {
+                    return 1.0;
+                }
+            }
+            return (double) total / sample.length;
+        } finally {
+            deflater.end();
+        }
+    }
+}
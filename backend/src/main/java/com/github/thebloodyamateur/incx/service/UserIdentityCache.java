@@ -0,0 +1,95 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.thebloodyamateur.incx.dto.UserIdentity;
+import com.github.thebloodyamateur.incx.persistence.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Size-bounded near cache of username to {@link UserIdentity}. Writers must call
+ * {@link #invalidate(String)} after changing a user's password or bucket, which also evicts the
+ * entry on the other instances; the expiry only bounds how long a missed invalidation can
+ * linger. Unknown usernames are not cached, so spraying random names cannot push real users out.
+ */
+@Service
+public class UserIdentityCache {
+    private static final String TOPIC = "users";
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserIdentity> cache;
+    private final InvalidationBus invalidationBus;
+    private final Executor delayedEviction;
+
+    public UserIdentityCache(
+        UserRepository userRepository,
+        InvalidationBus invalidationBus,
+        MeterRegistry meterRegistry,
+        @Value("${incx.auth.identity-cache.max-size:10000}") long maxSize,
+        @Value("${incx.auth.identity-cache.expire-after-write:PT10M}") Duration expireAfterWrite,
+        @Value("${incx.auth.identity-cache.evict-again-after:PT1S}") Duration evictAgainAfter
+    ) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-identity");
+        this.invalidationBus = invalidationBus;
+        this.delayedEviction = CompletableFuture.delayedExecutor(evictAgainAfter.toMillis(), TimeUnit.MILLISECONDS);
+        invalidationBus.subscribe(TOPIC, this::evict, cache::invalidateAll);
+    }
+
+    /**
+     * Returns the identity for the username, or {@code null} if no such user exists.
+     */
+    public UserIdentity get(String username) {
+        if (username == null) {
+            return null;
+        }
+        return cache.get(username, key -> userRepository.findIdentityByUsername(key).orElse(null));
+    }
+
+    /**
+     * Evicts the username here and on all other instances. Inside a transaction the local eviction
+     * is repeated after commit, so a lookup that ran in between cannot keep the old row cached.
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username);
+                }
+            });
+        } else {
+            evict(username);
+        }
+        invalidationBus.publish(TOPIC, username);
+    }
+
+    // A lookup that read the row just before the write committed can still store it after this
+    // eviction, so the key is evicted once more a little later.
+    private void evict(String username) {
+        cache.invalidate(username);
+        delayedEviction.execute(() -> cache.invalidate(username));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
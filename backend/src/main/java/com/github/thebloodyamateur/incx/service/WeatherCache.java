@@ -0,0 +1,158 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-tile cache of Open-Meteo forecasts. Concurrent misses for the same tile are collapsed
+ * into a single upstream call.
+ *
+ * <p>Expired entries are kept as last known good values: shortly after expiry they are served
+ * immediately while a background refresh runs, and for a longer window they are served whenever
+ * the upstream call fails or the circuit breaker is open.
+ */
+@Component
+@Slf4j(topic = "WeatherCache")
+public class WeatherCache {
+    private final OpenMeteoClient openMeteoClient;
+    private final WeatherHistoryService historyService;
+    private final Duration ttl;
+    private final Duration staleWhileRevalidate;
+    private final Duration staleIfError;
+    private final Counter staleServed;
+
+    private final ConcurrentHashMap<WeatherTile, CachedForecast> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<WeatherTile, CompletableFuture<CachedForecast>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService revalidationExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public record CachedForecast(JsonNode forecast, Instant fetchedAt, Instant expiresAt) {
+        public boolean isFresh(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+    }
+
+    public WeatherCache(
+        OpenMeteoClient openMeteoClient,
+        WeatherHistoryService historyService,
+        MeterRegistry meterRegistry,
+        @Value("${incx.weather.cache.ttl:PT10M}") Duration ttl,
+        @Value("${incx.weather.cache.stale-while-revalidate:PT1M}") Duration staleWhileRevalidate,
+        @Value("${incx.weather.cache.stale-if-error:PT6H}") Duration staleIfError
+    ) {
+        this.openMeteoClient = openMeteoClient;
+        this.historyService = historyService;
+        this.ttl = ttl;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.staleIfError = staleIfError;
+        this.staleServed = meterRegistry.counter("incx.weather.stale.served");
+    }
+
+    public CachedForecast get(WeatherTile tile) {
+        Instant now = Instant.now();
+        CachedForecast entry = entries.get(tile);
+        if (entry != null && entry.isFresh(now)) {
+            return entry;
+        }
+
+        if (entry != null && now.isBefore(entry.expiresAt().plus(staleWhileRevalidate))) {
+            revalidateInBackground(tile);
+            staleServed.increment();
+            return entry;
+        }
+
+        try {
+            return load(tile);
+        } catch (RuntimeException e) {
+            if (entry == null) {
+                throw e;
+            }
+            log.warn("Serving stale forecast for tile {} fetched at {}: {}", tile, entry.fetchedAt(), e.getMessage());
+            staleServed.increment();
+            return entry;
+        }
+    }
+
+    public void refresh(WeatherTile tile) {
+        load(tile);
+    }
+
+    /**
+     * Returns when the cached forecast for the tile expires, or {@code null} if nothing is cached.
+     */
+    public Instant expiresAt(WeatherTile tile) {
+        CachedForecast entry = entries.get(tile);
+        return entry != null ? entry.expiresAt() : null;
+    }
+
+    private void revalidateInBackground(WeatherTile tile) {
+        if (inFlight.containsKey(tile)) {
+            return;
+        }
+        revalidationExecutor.execute(() -> {
+            try {
+                load(tile);
+            } catch (RuntimeException e) {
+                log.debug("Background revalidation for tile {} failed: {}", tile, e.getMessage());
+            }
+        });
+    }
+
+    private CachedForecast load(WeatherTile tile) {
+        CompletableFuture<CachedForecast> pending = new CompletableFuture<>();
+        CompletableFuture<CachedForecast> existing = inFlight.putIfAbsent(tile, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            JsonNode forecast = openMeteoClient.fetchFromOpenMeteo(tile.latitude(), tile.longitude());
+            Instant now = Instant.now();
+            CachedForecast entry = new CachedForecast(forecast, now, now.plus(ttl));
+            entries.put(tile, entry);
+            pending.complete(entry);
+            historyService.record(tile, forecast);
+            return entry;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(tile, pending);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${incx.weather.cache.eviction-interval:PT1M}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(staleIfError);
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAt().isBefore(cutoff));
+        log.debug("Evicted {} weather entries past their stale window, {} remaining", before - entries.size(), entries.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        revalidationExecutor.shutdownNow();
+    }
+}
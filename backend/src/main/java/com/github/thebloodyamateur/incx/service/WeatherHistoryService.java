@@ -0,0 +1,204 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.thebloodyamateur.incx.dto.WeatherSeriesPoint;
+import com.github.thebloodyamateur.incx.persistence.model.WeatherObservation;
+import com.github.thebloodyamateur.incx.persistence.repository.WeatherObservationRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the full hourly series of every Open-Meteo response in {@code weather_observations}, so
+ * multi-hour and historical views are answered locally instead of going upstream again.
+ */
+@Service
+@Slf4j(topic = "WeatherHistoryService")
+public class WeatherHistoryService {
+
+    // API variable name -> column name. Also serves as the whitelist for range queries.
+    private static final Map<String, String> VARIABLES = Map.of(
+        "temperature", "temperature",
+        "humidity", "relative_humidity",
+        "precipitation", "precipitation",
+        "cloudCover", "cloud_cover",
+        "windSpeed", "wind_speed",
+        "weatherCode", "weather_code"
+    );
+
+    private final WeatherObservationRepository observationRepository;
+    private final int retentionDays;
+    private final Duration maxRange;
+
+    private final Set<LocalDate> knownPartitions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public WeatherHistoryService(
+        WeatherObservationRepository observationRepository,
+        @Value("${incx.weather.history.retention-days:30}") int retentionDays,
+        @Value("${incx.weather.history.max-range:P31D}") Duration maxRange
+    ) {
+        this.observationRepository = observationRepository;
+        this.retentionDays = retentionDays;
+        this.maxRange = maxRange;
+    }
+
+    /**
+     * Stores the hourly series of a forecast asynchronously. Repeated fetches for the same tile
+     * overlap heavily; the upsert keeps one row per tile and hour with the newest values.
+     */
+    public void record(WeatherTile tile, JsonNode forecast) {
+        writeExecutor.execute(() -> {
+            try {
+                List<WeatherObservation> observations = toObservations(tile, forecast);
+                if (observations.isEmpty()) {
+                    return;
+                }
+                observations.stream()
+                    .map(observation -> observation.observedAt().toLocalDate())
+                    .distinct()
+                    .forEach(this::ensurePartition);
+                observationRepository.upsertAll(observations);
+                log.debug("Stored {} hourly observations for tile {}", observations.size(), tile);
+            } catch (RuntimeException e) {
+                log.warn("Failed to store weather history for tile {}: {}", tile, e.getMessage());
+            }
+        });
+    }
+
+    public List<WeatherSeriesPoint> getRange(double latitude, double longitude, LocalDateTime from, LocalDateTime to, List<String> variables) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'.");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Requested range exceeds " + maxRange.toDays() + " days.");
+        }
+
+        List<String> requested = variables == null || variables.isEmpty() ? List.copyOf(VARIABLES.keySet()) : variables;
+        Map<String, String> columnsByVariable = new LinkedHashMap<>();
+        for (String variable : requested) {
+            String column = VARIABLES.get(variable);
+            if (column == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown weather variable: " + variable);
+            }
+            columnsByVariable.put(variable, column);
+        }
+
+        WeatherTile tile = WeatherTile.of(latitude, longitude);
+        List<Map<String, Object>> rows = observationRepository.findRange(
+            tile.latitudeE2(), tile.longitudeE2(), from, to, List.copyOf(columnsByVariable.values()));
+
+        List<WeatherSeriesPoint> points = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Number> values = new LinkedHashMap<>();
+            columnsByVariable.forEach((variable, column) -> values.put(variable, (Number) row.get(column)));
+            points.add(new WeatherSeriesPoint((LocalDateTime) row.get("observed_at"), values));
+        }
+        return points;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPartitions() {
+        knownPartitions.addAll(observationRepository.findPartitionDays());
+        log.info("Found {} weather history partitions", knownPartitions.size());
+    }
+
+    @Scheduled(cron = "${incx.weather.history.retention-cron:0 15 3 * * *}")
+    public void applyRetention() {
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+        for (LocalDate day : observationRepository.findPartitionDays()) {
+            if (day.isBefore(cutoff)) {
+                observationRepository.dropDailyPartition(day);
+                knownPartitions.remove(day);
+                log.info("Dropped weather history partition for {}", day);
+            }
+        }
+    }
+
+    private void ensurePartition(LocalDate day) {
+        if (knownPartitions.contains(day)) {
+            return;
+        }
+        try {
+            observationRepository.createDailyPartition(day);
+        } catch (RuntimeException e) {
+            // Another writer may have created it between the check and the DDL; anything else
+            // (lock timeout, lost connection) leaves the day unknown so the next write retries.
+            if (!partitionExistsQuietly(day)) {
+                log.warn("Creating weather history partition for {} failed: {}", day, e.getMessage());
+                return;
+            }
+        }
+        knownPartitions.add(day);
+    }
+
+    private boolean partitionExistsQuietly(LocalDate day) {
+        try {
+            return observationRepository.partitionExists(day);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private List<WeatherObservation> toObservations(WeatherTile tile, JsonNode forecast) {
+        JsonNode hourly = forecast.path("hourly");
+        JsonNode times = hourly.path("time");
+        if (!times.isArray()) {
+            return List.of();
+        }
+        int utcOffsetSeconds = forecast.path("utc_offset_seconds").asInt(0);
+        LocalDate oldestKept = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+
+        List<WeatherObservation> observations = new ArrayList<>(times.size());
+        for (int i = 0; i < times.size(); i++) {
+            LocalDateTime observedAt = LocalDateTime.parse(times.get(i).asText()).minusSeconds(utcOffsetSeconds);
+            if (observedAt.toLocalDate().isBefore(oldestKept)) {
+                continue;
+            }
+            Double weatherCode = valueAt(hourly, "weathercode", i);
+            observations.add(new WeatherObservation(
+                tile.latitudeE2(),
+                tile.longitudeE2(),
+                observedAt,
+                valueAt(hourly, "temperature_2m", i),
+                valueAt(hourly, "relativehumidity_2m", i),
+                valueAt(hourly, "precipitation", i),
+                valueAt(hourly, "cloudcover", i),
+                valueAt(hourly, "windspeed_10m", i),
+                weatherCode != null ? weatherCode.intValue() : null
+            ));
+        }
+        return observations;
+    }
+
+    private static Double valueAt(JsonNode hourly, String fieldName, int index) {
+        JsonNode value = hourly.path(fieldName).path(index);
+        return value.isNumber() ? value.asDouble() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeExecutor.shutdown();
+    }
+}
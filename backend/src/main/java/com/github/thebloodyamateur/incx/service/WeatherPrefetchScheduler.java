@@ -0,0 +1,148 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refresh-ahead for popular locations. Every tick the request counts per tile are folded into a
+ * decaying score; the top tiles whose cached forecast is about to expire get refreshed in the
+ * background, so user requests for them keep hitting a warm cache.
+ */
+@Component
+@Slf4j(topic = "WeatherPrefetchScheduler")
+public class WeatherPrefetchScheduler {
+    private final WeatherCache weatherCache;
+    private final int topK;
+    private final int maxTrackedTiles;
+    private final double decay;
+    private final double minScore;
+    private final Duration refreshAhead;
+    private final Duration maxJitter;
+    private final double refreshesPerMinute;
+
+    private final ConcurrentHashMap<WeatherTile, Heat> heat = new ConcurrentHashMap<>();
+    private final Set<WeatherTile> scheduled = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "weather-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched from tick(), which Spring never runs concurrently with itself.
+    private double budget;
+    private Instant lastRefill = Instant.now();
+
+    private static final class Heat {
+        final LongAdder hits = new LongAdder();
+        volatile double score;
+    }
+
+    public WeatherPrefetchScheduler(
+        WeatherCache weatherCache,
+        @Value("${incx.weather.prefetch.top-k:50}") int topK,
+        @Value("${incx.weather.prefetch.max-tracked-tiles:10000}") int maxTrackedTiles,
+        @Value("${incx.weather.prefetch.decay:0.8}") double decay,
+        @Value("${incx.weather.prefetch.min-score:1.0}") double minScore,
+        @Value("${incx.weather.prefetch.refresh-ahead:PT1M}") Duration refreshAhead,
+        @Value("${incx.weather.prefetch.max-jitter:PT20S}") Duration maxJitter,
+        @Value("${incx.weather.prefetch.refreshes-per-minute:120}") double refreshesPerMinute
+    ) {
+        this.weatherCache = weatherCache;
+        this.topK = topK;
+        this.maxTrackedTiles = maxTrackedTiles;
+        this.decay = decay;
+        this.minScore = minScore;
+        this.refreshAhead = refreshAhead;
+        this.maxJitter = maxJitter;
+        this.refreshesPerMinute = refreshesPerMinute;
+        this.budget = refreshesPerMinute;
+    }
+
+    public void recordAccess(WeatherTile tile) {
+        Heat tileHeat = heat.get(tile);
+        if (tileHeat == null) {
+            if (heat.size() >= maxTrackedTiles) {
+                return;
+            }
+            tileHeat = heat.computeIfAbsent(tile, t -> new Heat());
+        }
+        tileHeat.hits.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${incx.weather.prefetch.tick:PT15S}")
+    public void tick() {
+        Instant now = Instant.now();
+        refillBudget(now);
+
+        heat.entrySet().removeIf(entry -> {
+            Heat tileHeat = entry.getValue();
+            tileHeat.score = tileHeat.score * decay + tileHeat.hits.sumThenReset();
+            return tileHeat.score < minScore;
+        });
+
+        List<WeatherTile> hottest = heat.entrySet().stream()
+            .sorted(Comparator.comparingDouble((Map.Entry<WeatherTile, Heat> entry) -> entry.getValue().score).reversed())
+            .limit(topK)
+            .map(Map.Entry::getKey)
+            .toList();
+
+        Instant horizon = now.plus(refreshAhead);
+        int submitted = 0;
+        for (WeatherTile tile : hottest) {
+            Instant expiresAt = weatherCache.expiresAt(tile);
+            if (expiresAt != null && expiresAt.isAfter(horizon)) {
+                continue;
+            }
+            if (budget < 1) {
+                log.debug("Prefetch budget exhausted, deferring remaining hot tiles");
+                break;
+            }
+            if (!scheduled.add(tile)) {
+                continue;
+            }
+            budget -= 1;
+            submitted++;
+            long jitterMillis = ThreadLocalRandom.current().nextLong(maxJitter.toMillis() + 1);
+            executor.schedule(() -> refresh(tile), jitterMillis, TimeUnit.MILLISECONDS);
+        }
+        log.debug("Prefetch tick: {} tracked tiles, {} refreshes scheduled", heat.size(), submitted);
+    }
+
+    private void refresh(WeatherTile tile) {
+        try {
+            weatherCache.refresh(tile);
+        } catch (RuntimeException e) {
+            log.warn("Prefetch for tile {} failed: {}", tile, e.getMessage());
+        } finally {
+            scheduled.remove(tile);
+        }
+    }
+
+    private void refillBudget(Instant now) {
+        double elapsedMinutes = Duration.between(lastRefill, now).toMillis() / 60_000.0;
+        budget = Math.min(refreshesPerMinute, budget + elapsedMinutes * refreshesPerMinute);
+        lastRefill = now;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
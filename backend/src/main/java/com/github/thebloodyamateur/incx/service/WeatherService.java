@@ -1,29 +1,67 @@
 package com.github.thebloodyamateur.incx.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.thebloodyamateur.incx.dto.WeatherQuery;
 import com.github.thebloodyamateur.incx.dto.WeatherResponse;
+import com.github.thebloodyamateur.incx.service.OpenMeteoClient.Coordinates;
 
-import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
+import io.micrometer.core.annotation.Timed;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@Timed("incx.service")
 public class WeatherService {
 
-    private static final String OPEN_METEO_URL = "https://api.open-meteo.com/v1/forecast";
-    private static final String OPEN_METEO_GEOCODING_URL = "https://geocoding-api.open-meteo.com/v1/search";
+    private static final int MAX_GEOCODED_CITIES = 10_000;
+
+    private final OpenMeteoClient openMeteoClient;
+    private final WeatherCache weatherCache;
+    private final WeatherPrefetchScheduler prefetchScheduler;
+
+    // City coordinates never change, so they are kept until the map is full.
+    private final ConcurrentHashMap<String, Coordinates> geocodedCities = new ConcurrentHashMap<>();
 
-    private final OkHttpClient httpClient = new OkHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public WeatherService(OpenMeteoClient openMeteoClient, WeatherCache weatherCache, WeatherPrefetchScheduler prefetchScheduler) {
+        this.openMeteoClient = openMeteoClient;
+        this.weatherCache = weatherCache;
+        this.prefetchScheduler = prefetchScheduler;
+    }
 
     public WeatherResponse getCurrentWeather(WeatherQuery query) {
-        JsonNode root = fetchFromOpenMeteo(query.latitude(), query.longitude());
+        WeatherTile tile = WeatherTile.of(query.latitude(), query.longitude());
+        prefetchScheduler.recordAccess(tile);
+        return buildResponse(query, weatherCache.get(tile));
+    }
+
+    public WeatherResponse getCurrentWeatherByCity(WeatherQuery baseQuery, String cityName) {
+        Coordinates coords = geocode(cityName);
+        WeatherQuery queryWithCoords = new WeatherQuery(
+                coords.latitude,
+                coords.longitude,
+                baseQuery.viewMode(),
+                baseQuery.temperatureOverride(),
+                baseQuery.windSpeedOverride(),
+                baseQuery.humidityOverride(),
+                baseQuery.cloudCoverOverride(),
+                baseQuery.precipitationOverride(),
+                baseQuery.weatherModeOverride()
+        );
+        return getCurrentWeather(queryWithCoords);
+    }
+
+    public WeatherTile locateCity(String cityName) {
+        Coordinates coords = geocode(cityName);
+        return WeatherTile.of(coords.latitude, coords.longitude);
+    }
+
+    // Package-private and static so the benchmarks can exercise them without a Spring context.
+    static WeatherResponse buildResponse(WeatherQuery query, WeatherCache.CachedForecast cached) {
+        JsonNode root = cached.forecast();
 
         JsonNode current = root.path("current_weather");
         JsonNode hourly = root.path("hourly");
@@ -75,97 +113,25 @@ public class WeatherService {
                 cloudCover,
                 precipitation,
                 weatherCode,
-                root
-        );
-    }
-
-    public WeatherResponse getCurrentWeatherByCity(WeatherQuery baseQuery, String cityName) {
-        Coordinates coords = geocodeCity(cityName);
-        WeatherQuery queryWithCoords = new WeatherQuery(
-                coords.latitude,
-                coords.longitude,
-                baseQuery.viewMode(),
-                baseQuery.temperatureOverride(),
-                baseQuery.windSpeedOverride(),
-                baseQuery.humidityOverride(),
-                baseQuery.cloudCoverOverride(),
-                baseQuery.precipitationOverride(),
-                baseQuery.weatherModeOverride()
+                root,
+                !cached.isFresh(Instant.now())
         );
-        return getCurrentWeather(queryWithCoords);
-    }
-
-    private static final class Coordinates {
-        final double latitude;
-        final double longitude;
-
-        Coordinates(double latitude, double longitude) {
-            this.latitude = latitude;
-            this.longitude = longitude;
-        }
     }
 
-    private Coordinates geocodeCity(String cityName) {
-        HttpUrl url = HttpUrl.parse(OPEN_METEO_GEOCODING_URL).newBuilder()
-                .addQueryParameter("name", cityName)
-                .addQueryParameter("count", "1")
-                .addQueryParameter("language", "de")
-                .addQueryParameter("format", "json")
-                .build();
-
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful() || response.body() == null) {
-                throw new IOException("Unexpected HTTP code " + response);
-            }
-            String body = response.body().string();
-            JsonNode root = objectMapper.readTree(body);
-            JsonNode results = root.path("results");
-            if (!results.isArray() || results.isEmpty()) {
-                throw new RuntimeException("Keine Koordinaten für Ort gefunden: " + cityName);
-            }
-            JsonNode first = results.get(0);
-            double lat = first.path("latitude").asDouble();
-            double lon = first.path("longitude").asDouble();
-            return new Coordinates(lat, lon);
-        } catch (IOException e) {
-            throw new RuntimeException("Geocoding fehlgeschlagen für: " + cityName, e);
+    private Coordinates geocode(String cityName) {
+        String key = cityName.trim().toLowerCase(Locale.ROOT);
+        Coordinates cached = geocodedCities.get(key);
+        if (cached != null) {
+            return cached;
         }
-    }
-
-    private JsonNode fetchFromOpenMeteo(double latitude, double longitude) {
-        HttpUrl url = HttpUrl.parse(OPEN_METEO_URL).newBuilder()
-                .addQueryParameter("latitude", String.valueOf(latitude))
-                .addQueryParameter("longitude", String.valueOf(longitude))
-                .addQueryParameter("current_weather", "true")
-                .addQueryParameter("hourly", "temperature_2m,relativehumidity_2m,precipitation,cloudcover,windspeed_10m,weathercode")
-                .addQueryParameter("timezone", "auto")
-                .build();
-
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected HTTP code " + response);
-            }
-            if (response.body() == null) {
-                throw new IOException("Empty response body from Open-Meteo");
-            }
-            String body = response.body().string();
-            return objectMapper.readTree(body);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to fetch weather from Open-Meteo", e);
+        Coordinates coords = openMeteoClient.geocodeCity(cityName);
+        if (geocodedCities.size() < MAX_GEOCODED_CITIES) {
+            geocodedCities.put(key, coords);
         }
+        return coords;
     }
 
-    private Double extractFirst(JsonNode hourly, String fieldName) {
+    private static Double extractFirst(JsonNode hourly, String fieldName) {
         JsonNode array = hourly.path(fieldName);
         if (array.isArray() && array.size() > 0 && array.get(0).isNumber()) {
             return array.get(0).asDouble();
@@ -173,7 +139,7 @@ public class WeatherService {
         return null;
     }
 
-    private String deriveWeatherMode(Integer weatherCode, Double precipitation, Double temperature, Double windSpeed, Double cloudCover) {
+    static String deriveWeatherMode(Integer weatherCode, Double precipitation, Double temperature, Double windSpeed, Double cloudCover) {
         if (weatherCode == null) {
             return "sun";
         }
@@ -0,0 +1,161 @@
+package com.github.thebloodyamateur.incx.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.thebloodyamateur.incx.dto.WeatherQuery;
+import com.github.thebloodyamateur.incx.dto.WeatherResponse;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-sent weather updates. Subscribers are grouped by tile; each tick resolves every distinct
+ * tile once and pushes the serialized response to all of its subscribers, but only when the
+ * derived values changed since the last push.
+ */
+@Service
+@Slf4j(topic = "WeatherSubscriptionService")
+public class WeatherSubscriptionService {
+    private static final String EVENT_NAME = "weather";
+
+    private final WeatherService weatherService;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+
+    private final ConcurrentHashMap<WeatherTile, TileSubscribers> subscriptions = new ConcurrentHashMap<>();
+    private final ExecutorService fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final class TileSubscribers {
+        final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+        volatile Snapshot lastSnapshot;
+        volatile String lastPayload;
+    }
+
+    // Everything a client renders, i.e. the response without the raw upstream document.
+    private record Snapshot(String mode, Double temperature, Double windSpeed, Double humidity,
+                            Double cloudCover, Double precipitation, Integer weatherCode, boolean stale) {
+        static Snapshot of(WeatherResponse response) {
+            return new Snapshot(response.mode(), response.temperature(), response.windSpeed(), response.humidity(),
+                response.cloudCover(), response.precipitation(), response.weatherCode(), response.stale());
+        }
+    }
+
+    public WeatherSubscriptionService(
+        WeatherService weatherService,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${incx.weather.subscription.emitter-timeout:PT30M}") Duration emitterTimeout
+    ) {
+        this.weatherService = weatherService;
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+
+        Gauge.builder("incx.weather.subscription.tiles", subscriptions, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("incx.weather.subscription.clients", subscriptions,
+            map -> map.values().stream().mapToInt(tile -> tile.emitters.size()).sum()).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(WeatherTile tile) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        emitter.onCompletion(() -> unsubscribe(tile, emitter));
+        emitter.onTimeout(() -> unsubscribe(tile, emitter));
+        emitter.onError(error -> unsubscribe(tile, emitter));
+
+        TileSubscribers subscribers = subscriptions.compute(tile, (key, existing) -> {
+            TileSubscribers value = existing != null ? existing : new TileSubscribers();
+            value.emitters.add(emitter);
+            return value;
+        });
+        log.debug("New weather subscriber for tile {} ({} on this tile)", tile, subscribers.emitters.size());
+
+        String payload = subscribers.lastPayload;
+        if (payload != null) {
+            send(tile, emitter, payload);
+        } else {
+            fanOutExecutor.execute(() -> poll(tile));
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${incx.weather.subscription.interval:PT30S}")
+    public void pollAll() {
+        for (WeatherTile tile : subscriptions.keySet()) {
+            fanOutExecutor.execute(() -> poll(tile));
+        }
+    }
+
+    private void poll(WeatherTile tile) {
+        TileSubscribers subscribers = subscriptions.get(tile);
+        if (subscribers == null) {
+            return;
+        }
+
+        WeatherResponse response;
+        try {
+            response = weatherService.getCurrentWeather(
+                new WeatherQuery(tile.latitude(), tile.longitude(), "normal", null, null, null, null, null, null));
+        } catch (RuntimeException e) {
+            log.warn("Weather poll for tile {} failed: {}", tile, e.getMessage());
+            return;
+        }
+
+        String payload;
+        synchronized (subscribers) {
+            Snapshot snapshot = Snapshot.of(response);
+            if (Objects.equals(snapshot, subscribers.lastSnapshot)) {
+                return;
+            }
+            try {
+                payload = objectMapper.writeValueAsString(response);
+            } catch (JsonProcessingException e) {
+                log.error("Could not serialize weather update for tile {}: {}", tile, e.getMessage());
+                return;
+            }
+            subscribers.lastSnapshot = snapshot;
+            subscribers.lastPayload = payload;
+        }
+
+        for (SseEmitter emitter : subscribers.emitters) {
+            send(tile, emitter, payload);
+        }
+    }
+
+    private void send(WeatherTile tile, SseEmitter emitter, String payload) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(payload, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping weather subscriber for tile {}: {}", tile, e.getMessage());
+            unsubscribe(tile, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(WeatherTile tile, SseEmitter emitter) {
+        subscriptions.computeIfPresent(tile, (key, subscribers) -> {
+            subscribers.emitters.remove(emitter);
+            return subscribers.emitters.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+        subscriptions.values().forEach(subscribers -> subscribers.emitters.forEach(SseEmitter::complete));
+    }
+}
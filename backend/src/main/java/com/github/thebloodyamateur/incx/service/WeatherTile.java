@@ -0,0 +1,20 @@
+package com.github.thebloodyamateur.incx.service;
+
+/**
+ * A coordinate snapped to a 0.01° grid (roughly 1 km). Requests that fall into the same
+ * tile share one upstream forecast, which is what makes caching and prefetching effective.
+ */
+public record WeatherTile(int latitudeE2, int longitudeE2) {
+
+    public static WeatherTile of(double latitude, double longitude) {
+        return new WeatherTile((int) Math.round(latitude * 100), (int) Math.round(longitude * 100));
+    }
+
+    public double latitude() {
+        return latitudeE2 / 100.0;
+    }
+
+    public double longitude() {
+        return longitudeE2 / 100.0;
+    }
+}
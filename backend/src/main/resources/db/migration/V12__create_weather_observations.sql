@@ -0,0 +1,17 @@
+-- Hourly Open-Meteo values per location tile (coordinates * 100, see WeatherTile).
+-- Partitions are daily and managed by WeatherHistoryService, which creates them ahead of
+-- incoming data and drops them once they fall out of the retention window.
+CREATE TABLE IF NOT EXISTS public.weather_observations
+(
+    tile_lat integer NOT NULL,
+    tile_lon integer NOT NULL,
+    observed_at timestamp without time zone NOT NULL,   -- UTC
+    temperature real,
+    relative_humidity real,
+    precipitation real,
+    cloud_cover real,
+    wind_speed real,
+    weather_code smallint,
+    fetched_at timestamp without time zone NOT NULL DEFAULT now(),
+    CONSTRAINT weather_observations_pkey PRIMARY KEY (tile_lat, tile_lon, observed_at)
+) PARTITION BY RANGE (observed_at);
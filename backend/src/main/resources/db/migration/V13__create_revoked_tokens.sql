@@ -0,0 +1,10 @@
+-- Denylist for signed access/refresh tokens. Rows are only needed until the token expires.
+CREATE TABLE IF NOT EXISTS public.revoked_tokens
+(
+    token_id character varying(36) NOT NULL,
+    expires_at timestamp without time zone NOT NULL,
+    revoked_at timestamp without time zone NOT NULL DEFAULT now(),
+    CONSTRAINT revoked_tokens_pkey PRIMARY KEY (token_id)
+);
+
+CREATE INDEX IF NOT EXISTS revoked_tokens_expires_at_idx ON public.revoked_tokens (expires_at);
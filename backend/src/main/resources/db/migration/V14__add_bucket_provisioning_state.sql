@@ -0,0 +1,11 @@
+-- minio_buckets doubles as the provisioning outbox: registration inserts a PENDING row in the
+-- same transaction as the user, and BucketProvisioner creates the MinIO bucket afterwards.
+ALTER TABLE public.minio_buckets
+    ADD COLUMN IF NOT EXISTS status character varying(20) NOT NULL DEFAULT 'READY',
+    ADD COLUMN IF NOT EXISTS provisioning_attempts integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS next_attempt_at timestamp without time zone,
+    ADD COLUMN IF NOT EXISTS last_error character varying(1024);
+
+CREATE INDEX IF NOT EXISTS minio_buckets_pending_idx
+    ON public.minio_buckets (next_attempt_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,32 @@
+-- A date can only be booked once, regardless of the session. The entity always declared
+-- booking_date unique, but V5 only enforced uniqueness per session. Reservations rely on this
+-- index for INSERT ... ON CONFLICT DO NOTHING.
+
+-- Databases created under V5 may already hold several sessions on one date. The earliest
+-- booking for a date keeps it (oldest created_at, then lowest id); the later ones are moved
+-- into bookings_conflicts unchanged, so they can be followed up with the customer instead of
+-- being lost.
+CREATE TABLE IF NOT EXISTS public.bookings_conflicts
+(
+    LIKE public.bookings INCLUDING DEFAULTS,
+    moved_at timestamp without time zone NOT NULL DEFAULT now(),
+    CONSTRAINT bookings_conflicts_pkey PRIMARY KEY (id)
+);
+
+WITH ranked AS (
+    SELECT id,
+           row_number() OVER (PARTITION BY booking_date ORDER BY created_at NULLS LAST, id) AS rank
+    FROM public.bookings
+),
+moved AS (
+    DELETE FROM public.bookings b
+    USING ranked r
+    WHERE b.id = r.id AND r.rank > 1
+    RETURNING b.*
+)
+INSERT INTO public.bookings_conflicts (id, session_id, salutation, first_name, last_name, email, zip, city, booking_date, created_at)
+SELECT id, session_id, salutation, first_name, last_name, email, zip, city, booking_date, created_at
+FROM moved;
+
+CREATE UNIQUE INDEX IF NOT EXISTS bookings_booking_date_key
+    ON public.bookings (booking_date);
@@ -0,0 +1,4 @@
+-- Booking ids are allocated by Hibernate's pooled optimizer in blocks of 50 so bulk bookings
+-- can be inserted with JDBC batching. Inserts using the column default still draw one value per
+-- row from the same sequence and never collide with a block handed out to Hibernate.
+ALTER SEQUENCE public.bookings_id_seq INCREMENT BY 50;
@@ -0,0 +1,14 @@
+-- The backend serves the improvements catalogue from an in-memory snapshot and reloads it when
+-- this channel fires, so manual edits and later migrations show up without a restart.
+CREATE OR REPLACE FUNCTION public.notify_improvements_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('incx_improvements', TG_OP);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS improvements_changed ON public.improvements;
+
+CREATE TRIGGER improvements_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.improvements
+    FOR EACH STATEMENT EXECUTE FUNCTION public.notify_improvements_changed();
@@ -0,0 +1,8 @@
+-- Improvement changes now travel over the shared invalidation channel. Payloads have the form
+-- '<origin>|<topic>|<key>'; the empty origin marks notifications raised by the database itself.
+CREATE OR REPLACE FUNCTION public.notify_improvements_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('incx_invalidation', '|improvements|' || TG_OP);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,18 @@
+-- Deletes only stamp trashed_at; TrashService.purgeExpired removes the MinIO bodies and rows
+-- once the retention window has passed. purge_claimed_until leases rows to one instance at a time.
+ALTER TABLE public.minio_objects
+    ADD COLUMN IF NOT EXISTS trashed_at timestamp without time zone,
+    ADD COLUMN IF NOT EXISTS purge_claimed_until timestamp without time zone;
+
+-- Every lookup the API makes is by bucket and name among live rows, including the trash UPDATE.
+CREATE INDEX IF NOT EXISTS minio_objects_live_name_idx
+    ON public.minio_objects (bucket_id, name)
+    WHERE trashed_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS minio_objects_trashed_idx
+    ON public.minio_objects (trashed_at)
+    WHERE trashed_at IS NOT NULL;
+
+-- Uploads and the collector check whether other rows share a MinIO key.
+CREATE INDEX IF NOT EXISTS minio_objects_minio_path_idx
+    ON public.minio_objects (minio_path);
@@ -0,0 +1,14 @@
+-- Written in batches by AccessStats, never per request.
+ALTER TABLE public.minio_objects
+    ADD COLUMN IF NOT EXISTS last_accessed_at timestamp without time zone,
+    ADD COLUMN IF NOT EXISTS access_count bigint NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS storage_tier character varying(10) NOT NULL DEFAULT 'HOT',
+    ADD COLUMN IF NOT EXISTS tier_claimed_until timestamp without time zone,
+    -- Set once StorageTiering has written the row's own cold copy. The copy then stays until the
+    -- row is purged, so promotions never pull it away from a download that is still reading it.
+    ADD COLUMN IF NOT EXISTS has_cold_copy boolean NOT NULL DEFAULT false;
+
+-- StorageTiering looks for live hot files by when they were last touched.
+CREATE INDEX IF NOT EXISTS minio_objects_hot_idle_idx
+    ON public.minio_objects ((COALESCE(last_accessed_at, created_at)))
+    WHERE storage_tier = 'HOT' AND type = 'FILE' AND trashed_at IS NULL;
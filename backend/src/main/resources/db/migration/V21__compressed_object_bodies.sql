@@ -0,0 +1,4 @@
+-- size stays the original length; stored_size is what MinIO holds when content_encoding is set.
+ALTER TABLE public.minio_objects
+    ADD COLUMN IF NOT EXISTS content_encoding character varying(16),
+    ADD COLUMN IF NOT EXISTS stored_size bigint;
@@ -0,0 +1,15 @@
+-- Filename search (FileSearchService). Both extensions ship with PostgreSQL's contrib package;
+-- on PostgreSQL 12 creating them needs a superuser, so managed databases may have to enable
+-- them once up front.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+-- Substring and fuzzy matches, scoped to one bucket inside the index.
+CREATE INDEX IF NOT EXISTS minio_objects_name_trgm_idx
+    ON public.minio_objects USING gin (bucket_id, name gin_trgm_ops)
+    WHERE trashed_at IS NULL;
+
+-- Case-insensitive prefix matches as a plain range scan.
+CREATE INDEX IF NOT EXISTS minio_objects_name_prefix_idx
+    ON public.minio_objects (bucket_id, lower(name) text_pattern_ops)
+    WHERE trashed_at IS NULL;
@@ -0,0 +1,15 @@
+-- Index-ordered filename search pages (FileSearchRepository). btree_gist comes from the same
+-- contrib package as pg_trgm and, like it, needs a superuser on PostgreSQL 12.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Fuzzy matches, read nearest first with ORDER BY name <-> query.
+CREATE INDEX IF NOT EXISTS minio_objects_name_trgm_gist_idx
+    ON public.minio_objects USING gist (bucket_id, name gist_trgm_ops)
+    WHERE trashed_at IS NULL;
+
+-- Prefix matches, read in (lower(name), id) order. C collation makes the same index usable for
+-- LIKE 'prefix%' and for the ORDER BY, which text_pattern_ops was not.
+DROP INDEX IF EXISTS public.minio_objects_name_prefix_idx;
+CREATE INDEX IF NOT EXISTS minio_objects_name_prefix_idx
+    ON public.minio_objects (bucket_id, (lower(name)) COLLATE "C", id)
+    WHERE trashed_at IS NULL;